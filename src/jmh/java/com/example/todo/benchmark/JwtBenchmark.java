@@ -0,0 +1,76 @@
+package com.example.todo.benchmark;
+
+import com.example.todo.security.AuthenticatedUser;
+import com.example.todo.security.JwtUtil;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issuing at login and token verification on every authenticated request, from the verified-token
+ * cache and through the HMAC check when the token is not cached.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class JwtBenchmark {
+
+    private static final int TOKENS = 1024;
+
+    private JwtUtil jwtUtil;
+    private JwtUtil uncachedJwtUtil;
+    private AuthenticatedUser user;
+    private String token;
+    private String[] tokens;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        this.jwtUtil = new JwtUtil(10_000, new SimpleMeterRegistry());
+        this.uncachedJwtUtil = new JwtUtil(1, new SimpleMeterRegistry());
+        this.user = user(9L);
+        this.token = this.jwtUtil.generateToken(this.user);
+        this.jwtUtil.extractUsername(this.token);
+        this.tokens = new String[TOKENS];
+        for (int i = 0; i < TOKENS; i++) {
+            this.tokens[i] = this.jwtUtil.generateToken(user(i));
+        }
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return this.jwtUtil.generateToken(this.user);
+    }
+
+    @Benchmark
+    public String extractUsernameCached() {
+        return this.jwtUtil.extractUsername(this.token);
+    }
+
+    @Benchmark
+    public String extractUsernameUncached() {
+        this.next = (this.next + 1) % TOKENS;
+        return this.uncachedJwtUtil.extractUsername(this.tokens[this.next]);
+    }
+
+    private static AuthenticatedUser user(long id) {
+        return new AuthenticatedUser(id, "user" + id, "", List.of(new SimpleGrantedAuthority("ROLE_USER")));
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.todo.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Closed-loop load on {@code GET /tasks} of a running instance, on either profile: each client sends its next
+ * request as soon as the previous response arrives, for a number of seconds per concurrency level. The user
+ * is first given the requested number of tasks. The first two seconds of each level are a warm-up; the
+ * throughput and latency percentiles of the rest are printed, with the count of failed or non-200 responses.
+ * <p>
+ * Turn the rate limit and the concurrency limit off for the run, or most requests get 429 or 503; add
+ * {@code --spring.profiles.active=reactive} to the arguments for the reactive stack:
+ * <pre>
+ * mvn spring-boot:run -Dspring-boot.run.arguments="--todo.rate-limit.enabled=false --todo.concurrency-limit.enabled=false"
+ * mvn -Pbenchmark -DskipTests test-compile
+ * java -cp target/test-classes com.example.todo.benchmark.LoadTest http://localhost:8080 testuser test123 20 10 16,64,256,1024
+ * </pre>
+ */
+public final class LoadTest {
+
+    private static final long WARM_UP_NANOS = 2_000_000_000L;
+    private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+    private static final Pattern TASK_ID = Pattern.compile("\"id\"\\s*:");
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length != 6) {
+            System.err.println("usage: LoadTest <base-url> <username> <password> <tasks> <seconds>"
+                    + " <concurrency>[,<concurrency>...]");
+            System.exit(2);
+        }
+        String baseUrl = args[0];
+        int tasks = Integer.parseInt(args[3]);
+        int seconds = Integer.parseInt(args[4]);
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newFixedThreadPool(4))
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+
+        String token = login(client, baseUrl, args[1], args[2]);
+        seed(client, baseUrl, token, tasks);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/tasks"))
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(30))
+                .build();
+        for (String level : args[5].split(",")) {
+            run(client, request, Integer.parseInt(level), seconds);
+        }
+        System.exit(0);
+    }
+
+    private static String login(HttpClient client, String baseUrl, String username, String password)
+            throws Exception {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"username\":\"" + username + "\",\"password\":\"" + password + "\"}"))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        Matcher matcher = TOKEN.matcher(response.body());
+        if (response.statusCode() != 200 || !matcher.find()) {
+            throw new IllegalStateException("login failed with status " + response.statusCode());
+        }
+        return matcher.group(1);
+    }
+
+    /**
+     * Creates tasks until the user has {@code tasks} of them.
+     */
+    private static void seed(HttpClient client, String baseUrl, String token, int tasks) throws Exception {
+        String list = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/tasks"))
+                .header("Authorization", "Bearer " + token)
+                .build(), HttpResponse.BodyHandlers.ofString()).body();
+        long existing = TASK_ID.matcher(list).results().count();
+        for (long i = existing + 1; i <= tasks; i++) {
+            HttpResponse<Void> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/tasks"))
+                    .header("Authorization", "Bearer " + token)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(
+                            "{\"title\":\"Task " + i + "\",\"description\":\"Description of task " + i + "\"}"))
+                    .build(), HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() != 201) {
+                throw new IllegalStateException("creating a task failed with status " + response.statusCode());
+            }
+        }
+    }
+
+    private static void run(HttpClient client, HttpRequest request, int concurrency, int seconds)
+            throws InterruptedException {
+        ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        AtomicInteger errors = new AtomicInteger();
+        long start = System.nanoTime();
+        long measureFrom = start + WARM_UP_NANOS;
+        long end = start + seconds * 1_000_000_000L;
+        CountDownLatch done = new CountDownLatch(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            new Object() {
+                void send() {
+                    long sent = System.nanoTime();
+                    if (sent > end) {
+                        done.countDown();
+                        return;
+                    }
+                    client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, e) -> {
+                        if (e != null || response.statusCode() != 200) {
+                            errors.incrementAndGet();
+                        } else if (sent > measureFrom) {
+                            latencies.add(System.nanoTime() - sent);
+                        }
+                        send();
+                    });
+                }
+            }.send();
+        }
+        done.await();
+
+        long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+        if (sorted.length == 0) {
+            System.out.printf("c=%5d no successful response, errors=%d%n", concurrency, errors.get());
+            return;
+        }
+        System.out.printf("c=%5d rps=%7.0f p50=%7.2f ms p99=%8.2f ms max=%8.2f ms errors=%d%n", concurrency,
+                sorted.length * 1e9 / (end - measureFrom), percentile(sorted, 0.5), percentile(sorted, 0.99),
+                sorted[sorted.length - 1] / 1e6, errors.get());
+    }
+
+    private static double percentile(long[] sorted, double fraction) {
+        return sorted[Math.min(sorted.length - 1, (int) (sorted.length * fraction))] / 1e6;
+    }
+}
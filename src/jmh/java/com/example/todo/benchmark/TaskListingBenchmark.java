@@ -0,0 +1,102 @@
+package com.example.todo.benchmark;
+
+import com.example.todo.TodoApplication;
+import com.example.todo.dto.TaskDTO;
+import com.example.todo.entity.Task;
+import com.example.todo.entity.User;
+import com.example.todo.mapper.TaskMapper;
+import com.example.todo.repository.TaskRepository;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Listing of a user's 10k tasks from the in-memory H2 database: the {@code TaskDTO} projection query the task
+ * endpoints run, against loading the {@code Task} entities and mapping them with {@link TaskMapper}, as they
+ * did before. Each runs in a transaction the way its service code does: the projection read-only, the
+ * entities in a read-write one, which dirty-checks them at commit.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TaskListingBenchmark {
+
+    private static final Long OWNER_ID = 9L;
+    private static final int SIZE = 10_000;
+
+    private ConfigurableApplicationContext context;
+    private TaskRepository taskRepository;
+    private EntityManager entityManager;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+    private final TaskMapper taskMapper = new TaskMapper();
+
+    @Setup
+    public void setUp() {
+        this.context = new SpringApplicationBuilder(TodoApplication.class)
+                .properties("server.port=0", "spring.main.banner-mode=off", "spring.jpa.show-sql=false",
+                        "logging.level.root=WARN")
+                .run();
+        this.taskRepository = this.context.getBean(TaskRepository.class);
+        this.entityManager = SharedEntityManagerCreator.createSharedEntityManager(
+                this.context.getBean(EntityManagerFactory.class));
+        PlatformTransactionManager transactionManager = this.context.getBean(PlatformTransactionManager.class);
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.readWrite = new TransactionTemplate(transactionManager);
+
+        this.readWrite.executeWithoutResult(status -> {
+            User owner = this.entityManager.getReference(User.class, OWNER_ID);
+            List<Task> tasks = new ArrayList<>(SIZE);
+            for (long id = 1; id <= SIZE; id++) {
+                Task task = TaskMapperBenchmark.task(id);
+                task.setId(null);
+                task.setOwner(owner);
+                tasks.add(task);
+            }
+            this.taskRepository.saveAll(tasks);
+        });
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.context.close();
+    }
+
+    @Benchmark
+    public List<TaskDTO> projection() {
+        return this.readOnly.execute(status -> this.taskRepository.findDTOsByOwnerId(OWNER_ID));
+    }
+
+    @Benchmark
+    public List<TaskDTO> entities() {
+        return this.readWrite.execute(status -> this.taskMapper.toDTOList(this.entityManager
+                .createQuery("select t from Task t where t.owner.id = :ownerId and t.deleted = false order by t.id",
+                        Task.class)
+                .setParameter("ownerId", OWNER_ID)
+                .getResultList()));
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.todo.benchmark;
+
+import com.example.todo.dto.TaskDTO;
+import com.example.todo.entity.Task;
+import com.example.todo.mapper.TaskMapper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to DTO conversions of the task endpoints: one task, and whole lists of 10, 1k and 100k tasks.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskMapperBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class OneTask {
+        TaskMapper taskMapper = new TaskMapper();
+        Task task = task(1L);
+    }
+
+    @State(Scope.Benchmark)
+    public static class Tasks {
+        @Param({ "10", "1000", "100000" })
+        int size;
+
+        TaskMapper taskMapper = new TaskMapper();
+        List<Task> tasks;
+
+        @Setup
+        public void setUp() {
+            this.tasks = new ArrayList<>(this.size);
+            for (long id = 1; id <= this.size; id++) {
+                this.tasks.add(task(id));
+            }
+        }
+    }
+
+    @Benchmark
+    public TaskDTO toDTO(OneTask state) {
+        return state.taskMapper.toDTO(state.task);
+    }
+
+    @Benchmark
+    public List<TaskDTO> toDTOList(Tasks state) {
+        return state.taskMapper.toDTOList(state.tasks);
+    }
+
+    static Task task(long id) {
+        Task task = new Task();
+        task.setId(id);
+        task.setTitle("Task " + id);
+        task.setDescription("Description of task " + id);
+        task.setDone(id % 2 == 0);
+        return task;
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.todo.benchmark;
+
+import com.example.todo.entity.Role;
+import com.example.todo.entity.Task;
+import com.example.todo.entity.User;
+import com.example.todo.security.AuthenticatedUser;
+import com.example.todo.service.TaskRules;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The admin task rules on every write: the done check, and the "[Internal Use]" marker applied from the role
+ * mask of the authenticated user, against the AspectJ around-advice on {@code TaskRepository.save} that used to
+ * apply it by walking the owner's roles. The repository is a stub, so only the rule and the proxy are measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TaskRulesBenchmark {
+
+    public interface TaskStore {
+        Task save(Task task);
+    }
+
+    /**
+     * The advice of the former SecurityAspect.
+     */
+    @Aspect
+    public static class InternalUseAspect {
+
+        @Around("execution(* save(..))")
+        public Object neverDoneForAdmins(ProceedingJoinPoint joinPoint) throws Throwable {
+            Object[] args = joinPoint.getArgs();
+            if (args.length > 0 && args[0] instanceof Task) {
+                Task task = (Task) args[0];
+                if (task.getOwner().getRoles().contains(Role.ROLE_ADMIN)
+                        && !task.getDescription().startsWith(TaskRules.INTERNAL_USE)) {
+                    task.setDescription(TaskRules.INTERNAL_USE + " " + task.getDescription());
+                }
+            }
+            return joinPoint.proceed(args);
+        }
+    }
+
+    private AuthenticatedUser user;
+    private AuthenticatedUser admin;
+    private TaskStore store;
+    private TaskStore advisedStore;
+    private Task task;
+
+    @Setup
+    public void setUp() {
+        this.user = new AuthenticatedUser(9L, "testuser", "", List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        this.admin = new AuthenticatedUser(10L, "testadmin", "", List.of(new SimpleGrantedAuthority("ROLE_ADMIN")));
+        this.store = task -> task;
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(this.store);
+        proxyFactory.addAspect(new InternalUseAspect());
+        this.advisedStore = proxyFactory.getProxy();
+
+        User owner = new User();
+        owner.setRoles(Set.of(Role.ROLE_ADMIN));
+        this.task = TaskMapperBenchmark.task(1L);
+        this.task.setOwner(owner);
+    }
+
+    @Benchmark
+    public boolean canUserCreateOrUpdateTask() {
+        return TaskRules.canUserCreateOrUpdateTask(this.user, true);
+    }
+
+    @Benchmark
+    public boolean canAdminCreateOrUpdateTask() {
+        return TaskRules.canUserCreateOrUpdateTask(this.admin, true);
+    }
+
+    @Benchmark
+    public Task saveWithRoleMaskRule() {
+        this.task.setDescription(TaskRules.markInternal(this.admin, this.task.getDescription()));
+        return this.store.save(this.task);
+    }
+
+    @Benchmark
+    public Task saveThroughAspectProxy() {
+        return this.advisedStore.save(this.task);
+    }
+}
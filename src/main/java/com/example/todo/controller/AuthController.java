@@ -4,10 +4,17 @@ import com.example.todo.dto.AuthRequest;
 import com.example.todo.dto.AuthResponse;
 import com.example.todo.dto.RegisterRequest;
 import com.example.todo.security.JwtUtil;
+import com.example.todo.security.PasswordHashingRejectedException;
 import com.example.todo.service.UserService;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
 import lombok.RequiredArgsConstructor;
 
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -15,7 +22,10 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.TimeUnit;
+
 @RestController
+@Profile("!reactive")
 @RequestMapping("/auth")
 @RequiredArgsConstructor
 public class AuthController {
@@ -23,6 +33,7 @@ public class AuthController {
     private final UserService userService;
     private final JwtUtil jwtUtil;
     private final AuthenticationManager authManager;
+    private final MeterRegistry meterRegistry;
 
     @PostMapping("/register")
     public ResponseEntity<String> register(@RequestBody RegisterRequest req) {
@@ -32,10 +43,39 @@ public class AuthController {
 
     @PostMapping("/login")
     public ResponseEntity<AuthResponse> login(@RequestBody AuthRequest req) {
-        Authentication auth = authManager.authenticate(
-                new UsernamePasswordAuthenticationToken(req.getUsername(), req.getPassword()));
+        Authentication auth = authenticate(req);
         UserDetails user = (UserDetails) auth.getPrincipal();
         String token = jwtUtil.generateToken(user);
         return ResponseEntity.ok(new AuthResponse(token));
     }
+
+    /**
+     * Checks the credentials, timing the user lookup and the BCrypt comparison by outcome: "success",
+     * "failure" for rejected credentials, "rejected" when the password-hashing pool is full.
+     */
+    private Authentication authenticate(AuthRequest req) {
+        long start = System.nanoTime();
+        String outcome = "failure";
+        try {
+            Authentication auth = authManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(req.getUsername(), req.getPassword()));
+            outcome = "success";
+            return auth;
+        } catch (PasswordHashingRejectedException e) {
+            outcome = "rejected";
+            throw e;
+        } finally {
+            Timer.builder("todo.auth.login").description("Credential checks of logins, password hashing included")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @ExceptionHandler(PasswordHashingRejectedException.class)
+    public ResponseEntity<Void> passwordHashingRejected(PasswordHashingRejectedException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .build();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,63 @@
+package com.example.todo.controller;
+
+import com.example.todo.dto.AuthRequest;
+import com.example.todo.dto.AuthResponse;
+import com.example.todo.dto.RegisterRequest;
+import com.example.todo.security.JwtUtil;
+import com.example.todo.security.PasswordHashingRejectedException;
+import com.example.todo.service.ReactiveUserService;
+
+import lombok.RequiredArgsConstructor;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.*;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * The endpoints of {@link AuthController} on WebFlux, for the "reactive" profile.
+ */
+@RestController
+@Profile("reactive")
+@RequestMapping("/auth")
+@RequiredArgsConstructor
+public class ReactiveAuthController {
+
+    private final ReactiveUserService userService;
+    private final JwtUtil jwtUtil;
+    private final ReactiveAuthenticationManager authManager;
+
+    @PostMapping("/register")
+    public Mono<ResponseEntity<String>> register(@RequestBody RegisterRequest req) {
+        return userService.register(req.getUsername(), req.getPassword())
+                .thenReturn(ResponseEntity.ok("User created"));
+    }
+
+    @PostMapping("/login")
+    public Mono<ResponseEntity<AuthResponse>> login(@RequestBody AuthRequest req) {
+        return authManager.authenticate(new UsernamePasswordAuthenticationToken(req.getUsername(), req.getPassword()))
+                .map(auth -> ResponseEntity.ok(new AuthResponse(jwtUtil.generateToken((UserDetails) auth.getPrincipal()))));
+    }
+
+    /**
+     * Rejected credentials get the 403 that the servlet stack's security entry point answers.
+     */
+    @ExceptionHandler(AuthenticationException.class)
+    public ResponseEntity<Void> authenticationFailed(AuthenticationException e) {
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+    }
+
+    @ExceptionHandler(PasswordHashingRejectedException.class)
+    public ResponseEntity<Void> passwordHashingRejected(PasswordHashingRejectedException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .build();
+    }
+}
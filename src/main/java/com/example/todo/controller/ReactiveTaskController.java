@@ -0,0 +1,134 @@
+package com.example.todo.controller;
+
+import com.example.todo.dto.TaskChangesDTO;
+import com.example.todo.dto.TaskDTO;
+import com.example.todo.dto.TaskPatchDTO;
+import com.example.todo.entity.Task;
+import com.example.todo.mapper.TaskMapper;
+import com.example.todo.security.AuthenticatedUser;
+import com.example.todo.service.ReactiveTaskService;
+
+import lombok.RequiredArgsConstructor;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import reactor.core.publisher.Mono;
+
+import java.security.Principal;
+import java.util.List;
+
+import static com.example.todo.controller.TaskController.APPLICATION_MERGE_PATCH_JSON_VALUE;
+
+/**
+ * The task endpoints of {@link TaskController} on WebFlux, for the "reactive" profile: same paths, bodies,
+ * statuses, paging links, ETags and {@code If-Match} preconditions, converted with the same {@link TaskMapper}.
+ * Search, statistics, the event stream and the batch endpoints are served by the servlet stack only.
+ */
+@RestController
+@Profile("reactive")
+@RequestMapping("/tasks")
+@RequiredArgsConstructor
+public class ReactiveTaskController {
+
+    private final ReactiveTaskService taskService;
+    private final TaskMapper taskMapper;
+
+    /**
+     * Lists the user's tasks, paged as {@link TaskController#listTasks}. The ETag is the user's change version,
+     * read before the tasks: a matching {@code If-None-Match} gets a 304 without listing them.
+     */
+    @GetMapping
+    public Mono<ResponseEntity<List<TaskDTO>>> listTasks(@RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor, Principal principal, ServerWebExchange exchange) {
+        Long ownerId = AuthenticatedUser.from(principal).getId();
+        return taskService.getVersion(ownerId).flatMap(version -> {
+            String eTag = Long.toString(version);
+            if (exchange.checkNotModified(eTag)) {
+                return Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build());
+            }
+            if (limit == null && cursor == null) {
+                return taskService.getTasksForUser(ownerId).collectList()
+                        .map(tasks -> ResponseEntity.ok().eTag(eTag).body(tasks));
+            }
+            int pageSize = TaskController.pageSize(limit);
+            long afterId = cursor == null ? 0L : TaskCursor.decode(cursor);
+
+            return taskService.getTasksForUser(ownerId, afterId, pageSize + 1).collectList().map(tasks -> {
+                if (tasks.size() <= pageSize) {
+                    return ResponseEntity.ok().eTag(eTag).body(tasks);
+                }
+                List<TaskDTO> page = tasks.subList(0, pageSize);
+                String next = UriComponentsBuilder.fromHttpRequest(exchange.getRequest())
+                        .replaceQueryParam("limit", pageSize)
+                        .replaceQueryParam("cursor", TaskCursor.encode(page.get(pageSize - 1).getId()))
+                        .toUriString();
+                return ResponseEntity.ok()
+                        .eTag(eTag)
+                        .header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"")
+                        .body(page);
+            });
+        });
+    }
+
+    /**
+     * Delta synchronisation, as {@link TaskController#listChanges}.
+     */
+    @GetMapping(params = "since")
+    public Mono<ResponseEntity<TaskChangesDTO>> listChanges(@RequestParam long since, Principal principal) {
+        return taskService.getChanges(AuthenticatedUser.from(principal).getId(), since);
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<TaskDTO>> create(@RequestBody TaskDTO taskDTO, Principal principal) {
+        Task task = this.taskMapper.toEntity(taskDTO);
+        return taskService.create(task, AuthenticatedUser.from(principal)).map(this::toDTO);
+    }
+
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<TaskDTO>> update(@PathVariable Long id, @RequestBody TaskDTO taskDTO,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch, Principal principal) {
+        Task task = this.taskMapper.toEntity(taskDTO);
+        return taskService.update(id, task, AuthenticatedUser.from(principal),
+                TaskController.unmodifiedSince(ifMatch)).map(this::toDTO);
+    }
+
+    @PatchMapping(value = "/{id}", consumes = { APPLICATION_MERGE_PATCH_JSON_VALUE, MediaType.APPLICATION_JSON_VALUE })
+    public Mono<ResponseEntity<TaskDTO>> patch(@PathVariable Long id, @RequestBody TaskPatchDTO patch,
+            Principal principal) {
+        if (patch.hasDone() && patch.getDone() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "done cannot be removed");
+        }
+        return taskService.patch(id, patch, AuthenticatedUser.from(principal));
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> delete(@PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch, Principal principal) {
+        return taskService.delete(id, AuthenticatedUser.from(principal).getId(),
+                TaskController.unmodifiedSince(ifMatch));
+    }
+
+    private ResponseEntity<TaskDTO> toDTO(ResponseEntity<Task> response) {
+        return ResponseEntity.status(response.getStatusCode())
+                .headers(response.getHeaders())
+                .body(this.taskMapper.toDTO(response.getBody()));
+    }
+}
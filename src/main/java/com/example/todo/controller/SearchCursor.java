@@ -0,0 +1,40 @@
+package com.example.todo.controller;
+
+import com.example.todo.service.TaskSearchIndex;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor for search results: it wraps the score and id of the last hit of the previous page.
+ */
+final class SearchCursor {
+
+    private static final String PREFIX = "hit:";
+
+    private SearchCursor() {
+    }
+
+    static String encode(final TaskSearchIndex.Hit.Position last) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(
+                (PREFIX + last.getScore() + ":" + last.getTaskId()).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    static TaskSearchIndex.Hit.Position decode(final String cursor) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+            int separator = value.indexOf(':', PREFIX.length());
+            if (!value.startsWith(PREFIX) || separator < 0) {
+                throw new IllegalArgumentException(cursor);
+            }
+            return new TaskSearchIndex.Hit.Position(
+                    Integer.parseInt(value.substring(PREFIX.length(), separator)),
+                    Long.parseLong(value.substring(separator + 1)));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.todo.controller;
+
+import com.example.todo.service.TaskEventBus;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+
+/**
+ * Writes the events of a {@link TaskEventBus} subscription to a server-sent events response. Heartbeats are
+ * comment lines, which clients ignore.
+ */
+final class SseTaskEventSink implements TaskEventBus.Sink {
+
+    private final SseEmitter emitter;
+
+    SseTaskEventSink(final SseEmitter emitter) {
+        this.emitter = emitter;
+    }
+
+    @Override
+    public void send(final String name, final Object data) throws IOException {
+        emitter.send(SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON));
+    }
+
+    @Override
+    public void heartbeat() throws IOException {
+        emitter.send(SseEmitter.event().comment(""));
+    }
+
+    @Override
+    public void close() {
+        emitter.complete();
+    }
+}
@@ -1,58 +1,329 @@
 package com.example.todo.controller;
 
+import com.example.todo.dto.TaskBatchResult;
+import com.example.todo.dto.TaskChangesDTO;
 import com.example.todo.dto.TaskDTO;
+import com.example.todo.dto.TaskPatchDTO;
+import com.example.todo.dto.TaskStatsDTO;
 import com.example.todo.entity.Task;
 import com.example.todo.mapper.TaskMapper;
+import com.example.todo.security.AuthenticatedUser;
+import com.example.todo.service.TaskEventBus;
+import com.example.todo.service.TaskListCache;
+import com.example.todo.service.TaskSearchIndex;
 import com.example.todo.service.TaskService;
+import com.example.todo.service.TaskStatistics;
+import com.example.todo.service.TaskVersions;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 
 import lombok.RequiredArgsConstructor;
 
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.security.Principal;
+import java.util.ArrayList;
 import java.util.List;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping("/tasks")
 @RequiredArgsConstructor
 public class TaskController {
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int MAX_BATCH_SIZE = 1000;
+
+    static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
+    static final String APPLICATION_MERGE_PATCH_JSON_VALUE = "application/merge-patch+json";
+
     private final TaskService taskService;
     private final TaskMapper taskMapper;
+    private final ObjectMapper objectMapper;
+    private final TaskSearchIndex taskSearchIndex;
+    private final TaskStatistics taskStatistics;
+    private final TaskEventBus taskEventBus;
+    private final TaskVersions taskVersions;
+    private final TaskListCache taskListCache;
 
+    /**
+     * Lists the user's tasks. With {@code limit} or {@code cursor} the listing is paged by task id and a
+     * {@code Link: <...>; rel="next"} header points to the next page while there is one.
+     * <p>
+     * The ETag is the user's change version, held in memory: a matching {@code If-None-Match} gets a 304
+     * before any query or serialisation. The unpaged listing is written from the {@link TaskListCache}.
+     */
     @GetMapping
-    public List<TaskDTO> listTasks(Principal principal) {
-        return this.taskMapper.toDTOList(taskService.getTasksForUser(principal.getName()));
+    public ResponseEntity<?> listTasks(@RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor, Principal principal, WebRequest webRequest) {
+        Long ownerId = AuthenticatedUser.from(principal).getId();
+        long version = taskVersions.current(ownerId);
+        if (webRequest.checkNotModified(Long.toString(version))) {
+            return null;
+        }
+        if (limit == null && cursor == null) {
+            byte[] json = taskListCache.get(ownerId, version, () -> toJson(taskService.getTasksForUser(ownerId)));
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(json);
+        }
+        int pageSize = pageSize(limit);
+        long afterId = cursor == null ? 0L : TaskCursor.decode(cursor);
+
+        List<TaskDTO> tasks = taskService.getTasksForUser(ownerId, afterId, pageSize + 1);
+        if (tasks.size() <= pageSize) {
+            return ResponseEntity.ok(tasks);
+        }
+        List<TaskDTO> page = tasks.subList(0, pageSize);
+        String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                .replaceQueryParam("limit", pageSize)
+                .replaceQueryParam("cursor", TaskCursor.encode(page.get(pageSize - 1).getId()))
+                .toUriString();
+        return ResponseEntity.ok()
+                .header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"")
+                .body(page);
+    }
+
+    /**
+     * Delta synchronisation: what changed in the user's tasks since the {@code version} of a previous answer,
+     * starting from {@code since=0}. Answers 410 Gone when the client has to start over from 0.
+     */
+    @GetMapping(params = "since")
+    public ResponseEntity<TaskChangesDTO> listChanges(@RequestParam long since, Principal principal) {
+        return taskService.getChanges(AuthenticatedUser.from(principal).getId(), since);
+    }
+
+    /**
+     * Streams every task of the user as newline-delimited JSON, straight from a database cursor.
+     */
+    @GetMapping(produces = APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportTasks(Principal principal) {
+        Long ownerId = AuthenticatedUser.from(principal).getId();
+        ObjectWriter writer = this.objectMapper.writerFor(TaskDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = out -> {
+            JsonGenerator generator = this.objectMapper.getFactory().createGenerator(out);
+            generator.setRootValueSeparator(null);
+            taskService.forEachTaskOfUser(ownerId, task -> writeLine(writer, generator, task));
+            generator.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(APPLICATION_NDJSON_VALUE))
+                .body(body);
+    }
+
+    /**
+     * Full-text search over the user's task titles and descriptions, best matches first. Every term of
+     * {@code q} is matched as a prefix and all of them must match. Paged like the listing, with a
+     * {@code Link: <...>; rel="next"} header while there are more results.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<TaskDTO>> searchTasks(@RequestParam String q,
+            @RequestParam(required = false) Integer limit, @RequestParam(required = false) String cursor,
+            Principal principal) {
+        Long ownerId = AuthenticatedUser.from(principal).getId();
+        int pageSize = pageSize(limit);
+        TaskSearchIndex.Hit.Position after = cursor == null ? null : SearchCursor.decode(cursor);
+
+        List<TaskSearchIndex.Hit> hits = taskSearchIndex.search(ownerId, q, pageSize + 1, after);
+        List<TaskDTO> page = new ArrayList<>(Math.min(hits.size(), pageSize));
+        for (int i = 0; i < hits.size() && i < pageSize; i++) {
+            page.add(hits.get(i).getTask());
+        }
+        if (hits.size() <= pageSize) {
+            return ResponseEntity.ok(page);
+        }
+        String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                .replaceQueryParam("limit", pageSize)
+                .replaceQueryParam("cursor", SearchCursor.encode(hits.get(pageSize - 1).position()))
+                .toUriString();
+        return ResponseEntity.ok()
+                .header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"")
+                .body(page);
+    }
+
+    /**
+     * Counts of the user's tasks, read from counters kept up to date on every write.
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<TaskStatsDTO> stats(Principal principal) {
+        return ResponseEntity.ok(taskStatistics.of(AuthenticatedUser.from(principal).getId()));
+    }
+
+    /**
+     * Server-sent events for the user's task changes, pushed once committed: "created" and "updated" carry
+     * the task, "deleted" its id. A client that falls too far behind is disconnected and should resync.
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter events(Principal principal) throws IOException {
+        SseEmitter emitter = new SseEmitter();
+        // Sent before subscribing so that it goes first; it makes the response headers reach the client.
+        emitter.send(SseEmitter.event().comment("subscribed"));
+        TaskEventBus.Subscription subscription = taskEventBus.subscribe(AuthenticatedUser.from(principal).getId(),
+                new SseTaskEventSink(emitter));
+        emitter.onCompletion(subscription::cancel);
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> subscription.cancel());
+        return emitter;
     }
 
     @PostMapping
     public ResponseEntity<TaskDTO> create(@RequestBody TaskDTO taskDTO, Principal principal) {
         Task task = this.taskMapper.toEntity(taskDTO);
-        ResponseEntity<Task> response = taskService.create(task, principal.getName());
+        ResponseEntity<Task> response = taskService.create(task, AuthenticatedUser.from(principal));
 
         return ResponseEntity.status(response.getStatusCode())
+                .headers(response.getHeaders())
                 .body(this.taskMapper.toDTO(response.getBody()));
     }
 
+    /**
+     * Creates up to {@value #MAX_BATCH_SIZE} tasks at once. Answers 207 with one result per item, in order.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<List<TaskBatchResult>> createAll(@RequestBody List<TaskDTO> tasks, Principal principal) {
+        checkBatchSize(tasks.size());
+        return taskService.createAll(toEntities(tasks), AuthenticatedUser.from(principal));
+    }
+
+    /**
+     * Overwrites up to {@value #MAX_BATCH_SIZE} tasks, identified by the id of each item.
+     */
+    @PutMapping("/batch")
+    public ResponseEntity<List<TaskBatchResult>> updateAll(@RequestBody List<TaskDTO> tasks, Principal principal) {
+        checkBatchSize(tasks.size());
+        return taskService.updateAll(toEntities(tasks), AuthenticatedUser.from(principal));
+    }
+
+    @DeleteMapping("/batch")
+    public ResponseEntity<List<TaskBatchResult>> deleteAll(@RequestParam List<Long> ids, Principal principal) {
+        checkBatchSize(ids.size());
+        return taskService.deleteAll(ids, AuthenticatedUser.from(principal).getId());
+    }
+
+    /**
+     * Overwrites a task. With {@code If-Match}, only if the task has not changed since the version in the ETag
+     * of an earlier listing or write, else 412.
+     */
     @PutMapping("/{id}")
-    public ResponseEntity<TaskDTO> update(@PathVariable Long id, @RequestBody TaskDTO taskDTO, Principal principal) {
+    public ResponseEntity<TaskDTO> update(@PathVariable Long id, @RequestBody TaskDTO taskDTO,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch, Principal principal) {
         Task task = this.taskMapper.toEntity(taskDTO);
-        ResponseEntity<Task> response = taskService.update(id, task, principal.getName());
+        ResponseEntity<Task> response = taskService.update(id, task, AuthenticatedUser.from(principal),
+                unmodifiedSince(ifMatch));
 
         return ResponseEntity.status(response.getStatusCode())
+                .headers(response.getHeaders())
                 .body(this.taskMapper.toDTO(response.getBody()));
     }
 
+    /**
+     * Partial update with a JSON Merge Patch: only the members present in the body are written.
+     */
+    @PatchMapping(value = "/{id}", consumes = { APPLICATION_MERGE_PATCH_JSON_VALUE, MediaType.APPLICATION_JSON_VALUE })
+    public ResponseEntity<TaskDTO> patch(@PathVariable Long id, @RequestBody TaskPatchDTO patch, Principal principal) {
+        if (patch.hasDone() && patch.getDone() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "done cannot be removed");
+        }
+        return taskService.patch(id, patch, AuthenticatedUser.from(principal));
+    }
+
+    /**
+     * Deletes a task, with the same {@code If-Match} precondition as {@link #update}.
+     */
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> delete(@PathVariable Long id, Principal principal) {
-        return taskService.delete(id, principal.getName());
+    public ResponseEntity<Void> delete(@PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch, Principal principal) {
+        return taskService.delete(id, AuthenticatedUser.from(principal).getId(), unmodifiedSince(ifMatch));
+    }
+
+    private static void writeLine(ObjectWriter writer, JsonGenerator generator, TaskDTO task) {
+        try {
+            writer.writeValue(generator, task);
+            generator.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private byte[] toJson(List<TaskDTO> tasks) {
+        try {
+            return this.objectMapper.writeValueAsBytes(tasks);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private List<Task> toEntities(List<TaskDTO> tasks) {
+        List<Task> entities = new ArrayList<>(tasks.size());
+        for (TaskDTO task : tasks) {
+            entities.add(this.taskMapper.toEntity(task));
+        }
+        return entities;
+    }
+
+    private static void checkBatchSize(int size) {
+        if (size < 1 || size > MAX_BATCH_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "a batch holds between 1 and " + MAX_BATCH_SIZE + " items");
+        }
+    }
+
+    /**
+     * The version an {@code If-Match} header vouches for, the latest when it lists several, or null when it
+     * sets no condition. Weak and unknown tags can never match, which -1 stands for.
+     */
+    static Long unmodifiedSince(String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        long version = -1;
+        for (String tag : ifMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+                try {
+                    version = Math.max(version, Long.parseLong(tag.substring(1, tag.length() - 1)));
+                } catch (NumberFormatException e) {
+                    // not one of ours
+                }
+            }
+        }
+        return version;
+    }
+
+    static int pageSize(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        if (limit < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be positive");
+        }
+        return Math.min(limit, MAX_PAGE_SIZE);
     }
 }
\ No newline at end of file
@@ -0,0 +1,36 @@
+package com.example.todo.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Outcome of one item of a batch request, reported at the item's position in the request.
+ * {@code task} is the written task on success; otherwise {@code id} echoes the requested task, as for a
+ * deletion or a failure.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TaskBatchResult {
+    private Long id;
+    private int status;
+    private TaskDTO task;
+
+    public static TaskBatchResult of(int status, TaskDTO task) {
+        return new TaskBatchResult(task.getId(), status, task);
+    }
+
+    public static TaskBatchResult deleted(Long id) {
+        return new TaskBatchResult(id, HttpStatus.NO_CONTENT.value(), null);
+    }
+
+    public static TaskBatchResult failed(Long id, int status) {
+        return new TaskBatchResult(id, status, null);
+    }
+}
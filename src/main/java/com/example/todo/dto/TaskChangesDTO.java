@@ -0,0 +1,20 @@
+package com.example.todo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Delta of a user's tasks since a version: the tasks created or updated, the ids of the tasks deleted, and
+ * {@code version}, the high-water mark to synchronise from next time.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class TaskChangesDTO {
+    private long version;
+    private List<TaskDTO> tasks;
+    private List<Long> deleted;
+}
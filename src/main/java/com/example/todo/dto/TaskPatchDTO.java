@@ -0,0 +1,43 @@
+package com.example.todo.dto;
+
+/**
+ * Body of a JSON Merge Patch (RFC 7396) on a task. Jackson only calls the setters of members present in
+ * the document, so each setter also records that its field was sent; absent fields are left untouched.
+ */
+public class TaskPatchDTO {
+    private String title;
+    private String description;
+    private Boolean done;
+
+    private boolean titlePresent;
+    private boolean descriptionPresent;
+    private boolean donePresent;
+
+    public String getTitle() { return title; }
+    public void setTitle(String title) {
+        this.title = title;
+        this.titlePresent = true;
+    }
+
+    public String getDescription() { return description; }
+    public void setDescription(String description) {
+        this.description = description;
+        this.descriptionPresent = true;
+    }
+
+    public Boolean getDone() { return done; }
+    public void setDone(Boolean done) {
+        this.done = done;
+        this.donePresent = true;
+    }
+
+    public boolean hasTitle() { return titlePresent; }
+
+    public boolean hasDescription() { return descriptionPresent; }
+
+    public boolean hasDone() { return donePresent; }
+
+    public boolean isEmpty() {
+        return !titlePresent && !descriptionPresent && !donePresent;
+    }
+}
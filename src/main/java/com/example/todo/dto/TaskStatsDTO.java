@@ -0,0 +1,19 @@
+package com.example.todo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Task counts of one user. {@code internal} counts the tasks flagged "[Internal Use]" by an admin.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class TaskStatsDTO {
+    private long total;
+    private long done;
+    private long open;
+    private long internal;
+    private long internalDone;
+}
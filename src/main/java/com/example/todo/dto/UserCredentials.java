@@ -0,0 +1,73 @@
+package com.example.todo.dto;
+
+import com.example.todo.entity.Role;
+import com.example.todo.entity.User;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Immutable read model of a user for authentication: id, username, password hash and roles as a bit mask.
+ * It is copied from the cached user entity and its roles with {@link #of(User)}, or selected as one row per
+ * role (user left join roles) and folded with {@link #fold(List)}. The user's tasks are never loaded.
+ */
+public final class UserCredentials {
+    private final Long id;
+    private final String username;
+    private final String password;
+    private final int roleMask;
+
+    public UserCredentials(Long id, String username, String password, Role role) {
+        this(id, username, password, role == null ? 0 : role.mask());
+    }
+
+    private UserCredentials(Long id, String username, String password, int roleMask) {
+        this.id = id;
+        this.username = username;
+        this.password = password;
+        this.roleMask = roleMask;
+    }
+
+    /**
+     * Copies the user and its roles, which must still be loadable: call it inside the loading transaction.
+     */
+    public static UserCredentials of(User user) {
+        int roleMask = 0;
+        for (Role role : user.getRoles()) {
+            roleMask |= role.mask();
+        }
+        return new UserCredentials(user.getId(), user.getUsername(), user.getPassword(), roleMask);
+    }
+
+    /**
+     * Merges the per-role rows of one user; empty when there is no row at all.
+     */
+    public static Optional<UserCredentials> fold(List<UserCredentials> rows) {
+        return rows.stream().reduce((a, b) -> new UserCredentials(a.id, a.username, a.password,
+                a.roleMask | b.roleMask));
+    }
+
+    public Long getId() { return id; }
+
+    public String getUsername() { return username; }
+
+    public String getPassword() { return password; }
+
+    public int getRoleMask() { return roleMask; }
+
+    public boolean hasRole(Role role) {
+        return (roleMask & role.mask()) != 0;
+    }
+
+    public Set<Role> getRoles() {
+        EnumSet<Role> roles = EnumSet.noneOf(Role.class);
+        for (Role role : Role.values()) {
+            if (hasRole(role)) {
+                roles.add(role);
+            }
+        }
+        return roles;
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.todo.entity;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+
+/**
+ * Change counter of one user's tasks, kept out of the user table so that bumping it never touches the user.
+ * Every write to the user's tasks increments {@code version} and stamps the rows it writes with the new
+ * value; the row lock taken by the increment orders the writers of a same user, so versions are assigned in
+ * commit order. {@code purgedVersion} is the highest version of the tombstones compacted away: a client that
+ * synchronised before it may have missed deletions.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+public class ChangeVersion {
+    @Id
+    private Long ownerId;
+
+    private long version;
+    private long purgedVersion;
+
+    public ChangeVersion(Long ownerId) {
+        this.ownerId = ownerId;
+    }
+}
@@ -2,5 +2,12 @@ package com.example.todo.entity;
 
 public enum Role {
     ROLE_USER,
-    ROLE_ADMIN
-}
\ No newline at end of file
+    ROLE_ADMIN;
+
+    /**
+     * Single bit identifying this role in a role mask.
+     */
+    public int mask() {
+        return 1 << ordinal();
+    }
+}
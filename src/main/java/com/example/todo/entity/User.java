@@ -1,27 +1,49 @@
 package com.example.todo.entity;
 
-import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 
 import javax.persistence.*;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 
 import java.util.*;
 
+/**
+ * Full user entity. Authentication loads it by username and copies it into an immutable
+ * {@link com.example.todo.dto.UserCredentials}. Equality is on the unique username, and neither equals,
+ * hashCode nor toString touches the lazy roles or the task list.
+ * <p>
+ * The user, its roles and the username-to-id resolution live in the second-level cache.
+ */
 @Entity
-@Data
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@NaturalIdCache(region = "user-by-username")
+@Getter
+@Setter
+@EqualsAndHashCode(of = "username")
+@ToString(of = { "id", "username" })
 public class User {
     @Id
     @GeneratedValue
     private Long id;
 
+    @NaturalId
     @Column(unique = true)
     private String username;
 
     private String password;
 
-    @ElementCollection(fetch = FetchType.EAGER)
+    @ElementCollection
     @Enumerated(EnumType.STRING)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     private Set<Role> roles = new HashSet<>();
 
     @JsonManagedReference
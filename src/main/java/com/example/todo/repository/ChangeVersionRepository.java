@@ -0,0 +1,43 @@
+package com.example.todo.repository;
+
+import com.example.todo.entity.ChangeVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+
+public interface ChangeVersionRepository extends JpaRepository<ChangeVersion, Long> {
+
+    /**
+     * Increments the owner's version, locking its row until the transaction ends.
+     *
+     * @return the number of rows updated: 1, or 0 when the owner has no counter yet
+     */
+    @Modifying
+    @Query("update ChangeVersion v set v.version = v.version + 1 where v.ownerId = :ownerId")
+    int increment(@Param("ownerId") Long ownerId);
+
+    /**
+     * Takes back the version just taken by {@link #increment} in the same transaction, whose row lock keeps
+     * every other writer of the owner from having taken one since.
+     */
+    @Modifying
+    @Query("update ChangeVersion v set v.version = v.version - 1 where v.ownerId = :ownerId")
+    int decrement(@Param("ownerId") Long ownerId);
+
+    @Query("select v.version from ChangeVersion v where v.ownerId = :ownerId")
+    long findVersion(@Param("ownerId") Long ownerId);
+
+    /**
+     * Raises the purged version of every owner having tombstones deleted before {@code deletedBefore} to the
+     * highest version among them. To be run just before purging those tombstones, in the same transaction.
+     */
+    @Modifying
+    @Query("update ChangeVersion v set v.purgedVersion = (select max(t.changeVersion) from Task t"
+            + " where t.owner.id = v.ownerId and t.deleted = true and t.deletedAt < :deletedBefore)"
+            + " where exists (select t.id from Task t"
+            + " where t.owner.id = v.ownerId and t.deleted = true and t.deletedAt < :deletedBefore)")
+    int raisePurgedVersions(@Param("deletedBefore") Instant deletedBefore);
+}
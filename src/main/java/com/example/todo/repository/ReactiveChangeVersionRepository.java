@@ -0,0 +1,88 @@
+package com.example.todo.repository;
+
+import com.example.todo.entity.ChangeVersion;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+
+/**
+ * R2DBC counterpart of {@link ChangeVersionRepository} for the reactive stack, with the same statements.
+ */
+public class ReactiveChangeVersionRepository {
+
+    private final DatabaseClient client;
+
+    public ReactiveChangeVersionRepository(final DatabaseClient client) {
+        this.client = client;
+    }
+
+    public Mono<ChangeVersion> findById(final Long ownerId) {
+        return client.sql("select owner_id, version, purged_version from change_version where owner_id = :ownerId")
+                .bind("ownerId", ownerId)
+                .map(row -> {
+                    ChangeVersion changeVersion = new ChangeVersion(row.get("owner_id", Long.class));
+                    changeVersion.setVersion(row.get("version", Long.class));
+                    changeVersion.setPurgedVersion(row.get("purged_version", Long.class));
+                    return changeVersion;
+                })
+                .one();
+    }
+
+    public Mono<Long> findVersion(final Long ownerId) {
+        return client.sql("select version from change_version where owner_id = :ownerId")
+                .bind("ownerId", ownerId)
+                .map(row -> row.get("version", Long.class))
+                .one();
+    }
+
+    /**
+     * Creates the owner's counter at {@code version}.
+     */
+    public Mono<Integer> insert(final Long ownerId, final long version) {
+        return client.sql("insert into change_version (owner_id, version, purged_version)"
+                + " values (:ownerId, :version, 0)")
+                .bind("ownerId", ownerId)
+                .bind("version", version)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    /**
+     * Increments the owner's version, locking its row until the transaction ends.
+     *
+     * @return the number of rows updated: 1, or 0 when the owner has no counter yet
+     */
+    public Mono<Integer> increment(final Long ownerId) {
+        return client.sql("update change_version set version = version + 1 where owner_id = :ownerId")
+                .bind("ownerId", ownerId)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    /**
+     * Takes back the version just taken by {@link #increment} in the same transaction, as
+     * {@link ChangeVersionRepository#decrement} does.
+     */
+    public Mono<Integer> decrement(final Long ownerId) {
+        return client.sql("update change_version set version = version - 1 where owner_id = :ownerId")
+                .bind("ownerId", ownerId)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    /**
+     * Same statement as {@link ChangeVersionRepository#raisePurgedVersions}.
+     */
+    public Mono<Integer> raisePurgedVersions(final Instant deletedBefore) {
+        return client.sql("update change_version v set purged_version = (select max(t.change_version) from task t"
+                + " where t.owner_id = v.owner_id and t.deleted = true and t.deleted_at < :deletedBefore)"
+                + " where exists (select t.id from task t"
+                + " where t.owner_id = v.owner_id and t.deleted = true and t.deleted_at < :deletedBefore)")
+                .bind("deletedBefore", deletedBefore)
+                .fetch()
+                .rowsUpdated();
+    }
+}
@@ -0,0 +1,236 @@
+package com.example.todo.repository;
+
+import com.example.todo.dto.TaskDTO;
+import com.example.todo.dto.TaskPatchDTO;
+
+import io.r2dbc.spi.Row;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.DatabaseClient.GenericExecuteSpec;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * R2DBC counterpart of {@link TaskRepository} for the reactive stack, with the same statements: every lookup
+ * is keyed on {@code owner_id}, reads map rows straight to {@link TaskDTO} and skip tombstones, and writes put
+ * the owner in their WHERE clause and stamp the rows with the owner's change version. New ids are taken from
+ * blocks of the {@code task_seq} sequence, as the JPA id generator does.
+ */
+public class ReactiveTaskRepository {
+
+    private static final String SELECT_DTO = "select id, title, description, done from task";
+
+    /**
+     * The {@code INCREMENT BY} of {@code task_seq}: one sequence value reserves this many ids.
+     */
+    private static final int ID_BLOCK_SIZE = 50;
+
+    private final DatabaseClient client;
+
+    private final Object idLock = new Object();
+    private long nextId;
+    private long idBlockEnd;
+
+    public ReactiveTaskRepository(final DatabaseClient client) {
+        this.client = client;
+    }
+
+    public Flux<TaskDTO> findDTOsByOwnerId(final Long ownerId) {
+        return client.sql(SELECT_DTO + " where owner_id = :ownerId and deleted = false order by id")
+                .bind("ownerId", ownerId)
+                .map(ReactiveTaskRepository::toDTO)
+                .all();
+    }
+
+    public Flux<TaskDTO> findDTOsByOwnerIdAfter(final Long ownerId, final long afterId, final int limit) {
+        return client.sql(SELECT_DTO + " where owner_id = :ownerId and id > :afterId and deleted = false"
+                + " order by id limit :limit")
+                .bind("ownerId", ownerId)
+                .bind("afterId", afterId)
+                .bind("limit", limit)
+                .map(ReactiveTaskRepository::toDTO)
+                .all();
+    }
+
+    public Mono<TaskDTO> findDTOByIdAndOwnerId(final Long id, final Long ownerId) {
+        return client.sql(SELECT_DTO + " where id = :id and owner_id = :ownerId and deleted = false")
+                .bind("id", id)
+                .bind("ownerId", ownerId)
+                .map(ReactiveTaskRepository::toDTO)
+                .one();
+    }
+
+    public Mono<Boolean> existsById(final Long id) {
+        return client.sql("select 1 from task where id = :id and deleted = false")
+                .bind("id", id)
+                .map(row -> Boolean.TRUE)
+                .first()
+                .defaultIfEmpty(Boolean.FALSE);
+    }
+
+    /**
+     * Same query as {@link TaskRepository#findDTOsChanged}.
+     */
+    public Flux<TaskDTO> findDTOsChanged(final Long ownerId, final long since, final long until) {
+        return client.sql(SELECT_DTO + " where owner_id = :ownerId and change_version > :since"
+                + " and change_version <= :until and deleted = false order by id")
+                .bind("ownerId", ownerId)
+                .bind("since", since)
+                .bind("until", until)
+                .map(ReactiveTaskRepository::toDTO)
+                .all();
+    }
+
+    /**
+     * Same query as {@link TaskRepository#findIdsDeleted}.
+     */
+    public Flux<Long> findIdsDeleted(final Long ownerId, final long since, final long until) {
+        return client.sql("select id from task where owner_id = :ownerId and change_version > :since"
+                + " and change_version <= :until and deleted = true order by id")
+                .bind("ownerId", ownerId)
+                .bind("since", since)
+                .bind("until", until)
+                .map(row -> row.get("id", Long.class))
+                .all();
+    }
+
+    /**
+     * Inserts a task for {@code ownerId}, written at {@code version}.
+     *
+     * @return the id given to the task
+     */
+    public Mono<Long> insert(final Long ownerId, final String title, final String description, final boolean done,
+            final long version) {
+        return nextId().flatMap(id -> bindText(bindText(client.sql("insert into task (id, title, description, done,"
+                + " change_version, owner_id) values (:id, :title, :description, :done, :version, :ownerId)"),
+                "title", title), "description", description)
+                .bind("id", id)
+                .bind("done", done)
+                .bind("version", version)
+                .bind("ownerId", ownerId)
+                .fetch()
+                .rowsUpdated()
+                .thenReturn(id));
+    }
+
+    /**
+     * Same statement as {@link TaskRepository#updateOwned}.
+     *
+     * @return the number of rows updated: 1, or 0 when no such task is owned by {@code ownerId} or it changed
+     */
+    public Mono<Integer> updateOwned(final Long id, final Long ownerId, final String title, final String description,
+            final boolean done, final long version, final long unmodifiedSince) {
+        return bindText(bindText(client.sql("update task set title = :title, description = :description,"
+                + " done = :done, change_version = :version where id = :id and owner_id = :ownerId"
+                + " and deleted = false and change_version <= :unmodifiedSince"), "title", title),
+                "description", description)
+                .bind("done", done)
+                .bind("version", version)
+                .bind("id", id)
+                .bind("ownerId", ownerId)
+                .bind("unmodifiedSince", unmodifiedSince)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    /**
+     * Same statement as {@link TaskRepositoryImpl#patchOwned}: the SET clause names only the columns sent.
+     */
+    public Mono<Integer> patchOwned(final Long id, final Long ownerId, final TaskPatchDTO patch, final long version) {
+        List<String> columns = new ArrayList<>(4);
+        if (patch.hasTitle()) {
+            columns.add("title = :title");
+        }
+        if (patch.hasDescription()) {
+            columns.add("description = :description");
+        }
+        if (patch.hasDone()) {
+            columns.add("done = :done");
+        }
+        columns.add("change_version = :version");
+        GenericExecuteSpec update = client.sql("update task set " + String.join(", ", columns)
+                + " where id = :id and owner_id = :ownerId and deleted = false")
+                .bind("id", id)
+                .bind("ownerId", ownerId)
+                .bind("version", version);
+        if (patch.hasTitle()) {
+            update = bindText(update, "title", patch.getTitle());
+        }
+        if (patch.hasDescription()) {
+            update = bindText(update, "description", patch.getDescription());
+        }
+        if (patch.hasDone()) {
+            update = update.bind("done", patch.getDone());
+        }
+        return update.fetch().rowsUpdated();
+    }
+
+    /**
+     * Same statement as {@link TaskRepository#deleteOwned}: the task becomes a tombstone.
+     *
+     * @return the number of rows deleted: 1, or 0 when no such task is owned by {@code ownerId} or it changed
+     */
+    public Mono<Integer> deleteOwned(final Long id, final Long ownerId, final long version,
+            final long unmodifiedSince, final Instant deletedAt) {
+        return client.sql("update task set deleted = true, deleted_at = :deletedAt, title = null,"
+                + " description = null, change_version = :version where id = :id and owner_id = :ownerId"
+                + " and deleted = false and change_version <= :unmodifiedSince")
+                .bind("deletedAt", deletedAt)
+                .bind("version", version)
+                .bind("id", id)
+                .bind("ownerId", ownerId)
+                .bind("unmodifiedSince", unmodifiedSince)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    public Mono<Integer> purgeDeleted(final Instant deletedBefore) {
+        return client.sql("delete from task where deleted = true and deleted_at < :deletedBefore")
+                .bind("deletedBefore", deletedBefore)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    /**
+     * Next id of the current block, reading the sequence only when the block is used up. Two callers that
+     * find it used up at the same time each read a block; the one that loses keeps its first id only.
+     */
+    private Mono<Long> nextId() {
+        return Mono.defer(() -> {
+            synchronized (idLock) {
+                if (nextId < idBlockEnd) {
+                    return Mono.just(nextId++);
+                }
+            }
+            return client.sql("select next value for task_seq")
+                    .map(row -> row.get(0, Long.class))
+                    .one()
+                    .map(blockStart -> {
+                        synchronized (idLock) {
+                            if (nextId >= idBlockEnd) {
+                                nextId = blockStart + 1;
+                                idBlockEnd = blockStart + ID_BLOCK_SIZE;
+                            }
+                        }
+                        return blockStart;
+                    });
+        });
+    }
+
+    private static GenericExecuteSpec bindText(final GenericExecuteSpec spec, final String name, final String value) {
+        return value == null ? spec.bindNull(name, String.class) : spec.bind(name, value);
+    }
+
+    private static TaskDTO toDTO(final Row row) {
+        return new TaskDTO(
+                row.get("id", Long.class),
+                row.get("title", String.class),
+                row.get("description", String.class),
+                Boolean.TRUE.equals(row.get("done", Boolean.class)));
+    }
+}
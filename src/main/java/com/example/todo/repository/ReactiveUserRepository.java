@@ -0,0 +1,72 @@
+package com.example.todo.repository;
+
+import com.example.todo.dto.UserCredentials;
+import com.example.todo.entity.Role;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * R2DBC counterpart of {@link UserRepository} for the reactive stack.
+ */
+public class ReactiveUserRepository {
+
+    private final DatabaseClient client;
+
+    public ReactiveUserRepository(final DatabaseClient client) {
+        this.client = client;
+    }
+
+    /**
+     * One row per role of the user (a single row with a null role when it has none), in one query.
+     * Fold the rows with {@link UserCredentials#fold(List)}.
+     */
+    public Flux<UserCredentials> findCredentialsByUsername(final String username) {
+        return client.sql("select u.id, u.username, u.password, r.roles from user u"
+                + " left join user_roles r on r.user_id = u.id where u.username = :username")
+                .bind("username", username)
+                .map(row -> {
+                    String role = row.get("roles", String.class);
+                    return new UserCredentials(
+                            row.get("id", Long.class),
+                            row.get("username", String.class),
+                            row.get("password", String.class),
+                            role == null ? null : Role.valueOf(role));
+                })
+                .all();
+    }
+
+    public Mono<Boolean> existsByUsername(final String username) {
+        return client.sql("select 1 from user where username = :username")
+                .bind("username", username)
+                .map(row -> Boolean.TRUE)
+                .first()
+                .defaultIfEmpty(Boolean.FALSE);
+    }
+
+    /**
+     * Inserts the user and its roles.
+     *
+     * @return the id given to the user
+     */
+    public Mono<Long> insert(final String username, final String password, final Set<Role> roles) {
+        return client.sql("insert into user (username, password) values (:username, :password)")
+                .filter(statement -> statement.returnGeneratedValues("id"))
+                .bind("username", username)
+                .bind("password", password)
+                .map(row -> row.get("id", Long.class))
+                .one()
+                .flatMap(id -> Flux.fromIterable(roles)
+                        .concatMap(role -> client.sql("insert into user_roles (user_id, roles) values (:userId, :role)")
+                                .bind("userId", id)
+                                .bind("role", role.name())
+                                .fetch()
+                                .rowsUpdated())
+                        .then(Mono.just(id)));
+    }
+}
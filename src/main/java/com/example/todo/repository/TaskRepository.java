@@ -1,10 +1,115 @@
 package com.example.todo.repository;
 
+import com.example.todo.dto.TaskDTO;
 import com.example.todo.entity.Task;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import javax.persistence.QueryHint;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface TaskRepository extends JpaRepository<Task, Long> {
-    List<Task> findByOwnerUsername(String username);
-}
\ No newline at end of file
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+
+/**
+ * Every lookup is keyed on {@code owner_id}, so none of them joins the user table.
+ * Read methods select straight into {@link TaskDTO}: no entity is hydrated, managed or dirty-checked.
+ * Deleted tasks stay behind as tombstones; every method but the delta synchronisation ones skips them.
+ */
+public interface TaskRepository extends JpaRepository<Task, Long>, TaskRepositoryCustom {
+
+    @Query("select new com.example.todo.dto.TaskDTO(t.id, t.title, t.description, t.done) from Task t"
+            + " where t.owner.id = :ownerId and t.deleted = false order by t.id")
+    List<TaskDTO> findDTOsByOwnerId(@Param("ownerId") Long ownerId);
+
+    @Query("select new com.example.todo.dto.TaskDTO(t.id, t.title, t.description, t.done) from Task t"
+            + " where t.owner.id = :ownerId and t.id > :afterId and t.deleted = false order by t.id")
+    List<TaskDTO> findDTOsByOwnerIdAfter(@Param("ownerId") Long ownerId, @Param("afterId") Long afterId,
+            Pageable pageable);
+
+    @Query("select new com.example.todo.dto.TaskDTO(t.id, t.title, t.description, t.done) from Task t"
+            + " where t.id = :id and t.owner.id = :ownerId and t.deleted = false")
+    Optional<TaskDTO> findDTOByIdAndOwnerId(@Param("id") Long id, @Param("ownerId") Long ownerId);
+
+    /**
+     * Streams the user's tasks from a JDBC cursor; must be consumed (and closed) inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "256"))
+    @Query("select new com.example.todo.dto.TaskDTO(t.id, t.title, t.description, t.done) from Task t"
+            + " where t.owner.id = :ownerId and t.deleted = false order by t.id")
+    Stream<TaskDTO> streamDTOsByOwnerId(@Param("ownerId") Long ownerId);
+
+    /**
+     * Overwrites the task in a single statement, provided it belongs to the given owner and was last written
+     * at a version no later than {@code unmodifiedSince}.
+     *
+     * @return the number of rows updated: 1, or 0 when no such task is owned by {@code ownerId} or it changed
+     */
+    @Modifying
+    @Query("update Task t set t.title = :title, t.description = :description, t.done = :done,"
+            + " t.changeVersion = :version where t.id = :id and t.owner.id = :ownerId and t.deleted = false"
+            + " and t.changeVersion <= :unmodifiedSince")
+    int updateOwned(@Param("id") Long id, @Param("ownerId") Long ownerId, @Param("title") String title,
+            @Param("description") String description, @Param("done") boolean done, @Param("version") long version,
+            @Param("unmodifiedSince") long unmodifiedSince);
+
+    /**
+     * Turns the task into a tombstone in a single statement, under the conditions of {@link #updateOwned}.
+     *
+     * @return the number of rows deleted: 1, or 0 when no such task is owned by {@code ownerId} or it changed
+     */
+    @Modifying
+    @Query("update Task t set t.deleted = true, t.deletedAt = :deletedAt, t.title = null, t.description = null,"
+            + " t.changeVersion = :version where t.id = :id and t.owner.id = :ownerId and t.deleted = false"
+            + " and t.changeVersion <= :unmodifiedSince")
+    int deleteOwned(@Param("id") Long id, @Param("ownerId") Long ownerId, @Param("version") long version,
+            @Param("unmodifiedSince") long unmodifiedSince, @Param("deletedAt") Instant deletedAt);
+
+    @Query("select t from Task t where t.owner.id = :ownerId and t.id in :ids and t.deleted = false")
+    List<Task> findAllOwned(@Param("ownerId") Long ownerId, @Param("ids") Collection<Long> ids);
+
+    @Query("select t.id from Task t where t.owner.id = :ownerId and t.id in :ids and t.deleted = false")
+    List<Long> findOwnedIds(@Param("ownerId") Long ownerId, @Param("ids") Collection<Long> ids);
+
+    @Query("select t.id from Task t where t.id in :ids and t.deleted = false")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    boolean existsByIdAndDeletedFalse(Long id);
+
+    @Modifying
+    @Query("update Task t set t.deleted = true, t.deletedAt = :deletedAt, t.title = null, t.description = null,"
+            + " t.changeVersion = :version where t.owner.id = :ownerId and t.id in :ids and t.deleted = false")
+    int deleteAllOwned(@Param("ownerId") Long ownerId, @Param("ids") Collection<Long> ids,
+            @Param("version") long version, @Param("deletedAt") Instant deletedAt);
+
+    @Query("select distinct t.owner.id from Task t where t.deleted = false")
+    List<Long> findOwnerIds();
+
+    /**
+     * The user's live tasks written at a version in ({@code since}, {@code until}].
+     */
+    @Query("select new com.example.todo.dto.TaskDTO(t.id, t.title, t.description, t.done) from Task t"
+            + " where t.owner.id = :ownerId and t.changeVersion > :since and t.changeVersion <= :until"
+            + " and t.deleted = false order by t.id")
+    List<TaskDTO> findDTOsChanged(@Param("ownerId") Long ownerId, @Param("since") long since,
+            @Param("until") long until);
+
+    /**
+     * Ids of the user's tasks deleted at a version in ({@code since}, {@code until}].
+     */
+    @Query("select t.id from Task t where t.owner.id = :ownerId and t.changeVersion > :since"
+            + " and t.changeVersion <= :until and t.deleted = true order by t.id")
+    List<Long> findIdsDeleted(@Param("ownerId") Long ownerId, @Param("since") long since,
+            @Param("until") long until);
+
+    @Modifying
+    @Query("delete from Task t where t.deleted = true and t.deletedAt < :deletedBefore")
+    int purgeDeleted(@Param("deletedBefore") Instant deletedBefore);
+}
@@ -0,0 +1,14 @@
+package com.example.todo.repository;
+
+import com.example.todo.dto.TaskPatchDTO;
+
+public interface TaskRepositoryCustom {
+
+    /**
+     * Writes only the fields present in {@code patch}, in a single statement, provided the task belongs to
+     * the given owner, and stamps the task with {@code version}. The patch must not be empty.
+     *
+     * @return the number of rows updated: 1, or 0 when no such task is owned by {@code ownerId}
+     */
+    int patchOwned(Long id, Long ownerId, TaskPatchDTO patch, long version);
+}
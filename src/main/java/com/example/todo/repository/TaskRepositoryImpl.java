@@ -0,0 +1,49 @@
+package com.example.todo.repository;
+
+import com.example.todo.dto.TaskPatchDTO;
+import com.example.todo.entity.Task;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaUpdate;
+import javax.persistence.criteria.Root;
+
+/**
+ * Builds the UPDATE from the patch so that its SET clause names only the columns the client sent.
+ * Keys are bound as parameters rather than inlined as literals, so each column combination is a single
+ * prepared statement whatever the task or owner.
+ */
+public class TaskRepositoryImpl implements TaskRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public int patchOwned(Long id, Long ownerId, TaskPatchDTO patch, long version) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Task> update = builder.createCriteriaUpdate(Task.class);
+        Root<Task> task = update.from(Task.class);
+
+        if (patch.hasTitle()) {
+            update.set("title", patch.getTitle());
+        }
+        if (patch.hasDescription()) {
+            update.set("description", patch.getDescription());
+        }
+        if (patch.hasDone()) {
+            update.set("done", patch.getDone());
+        }
+        update.set(task.<Long>get("changeVersion"), builder.parameter(Long.class, "version"));
+        update.where(
+                builder.equal(task.get("id"), builder.parameter(Long.class, "id")),
+                builder.equal(task.get("owner").get("id"), builder.parameter(Long.class, "ownerId")),
+                builder.isFalse(task.<Boolean>get("deleted")));
+
+        return entityManager.createQuery(update)
+                .setParameter("id", id)
+                .setParameter("ownerId", ownerId)
+                .setParameter("version", version)
+                .executeUpdate();
+    }
+}
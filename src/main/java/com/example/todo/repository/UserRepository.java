@@ -3,8 +3,7 @@ package com.example.todo.repository;
 import com.example.todo.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 
-import java.util.Optional;
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom {
 
-public interface UserRepository extends JpaRepository<User, Long> {
-    Optional<User> findByUsername(String username);
-}
\ No newline at end of file
+    boolean existsByUsername(String username);
+}
@@ -0,0 +1,14 @@
+package com.example.todo.repository;
+
+import com.example.todo.entity.User;
+
+import java.util.Optional;
+
+public interface UserRepositoryCustom {
+
+    /**
+     * Loads the user by its natural id, through the second-level cache: once resolved, neither the
+     * username lookup nor the user is read from the database again.
+     */
+    Optional<User> findByUsername(String username);
+}
@@ -0,0 +1,90 @@
+package com.example.todo.security;
+
+import com.example.todo.dto.UserCredentials;
+import com.example.todo.entity.Role;
+
+import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.security.Principal;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Principal of an authenticated request. It carries the user's id and roles so that task operations can be
+ * keyed on {@code owner_id} without looking the user up again.
+ */
+public class AuthenticatedUser extends User {
+
+    private final Long id;
+
+    private final Set<Role> roles;
+
+    private final int roleMask;
+
+    public AuthenticatedUser(final Long id, final String username, final String password,
+            final Collection<? extends GrantedAuthority> authorities) {
+        super(username, password, authorities);
+        this.id = id;
+        EnumSet<Role> granted = EnumSet.noneOf(Role.class);
+        int mask = 0;
+        for (GrantedAuthority authority : authorities) {
+            for (Role role : Role.values()) {
+                if (role.name().equals(authority.getAuthority())) {
+                    granted.add(role);
+                    mask |= role.mask();
+                }
+            }
+        }
+        this.roles = Collections.unmodifiableSet(granted);
+        this.roleMask = mask;
+    }
+
+    /**
+     * Builds the principal of a user looked up for authentication.
+     */
+    public static AuthenticatedUser of(final UserCredentials user) {
+        return new AuthenticatedUser(
+                user.getId(),
+                user.getUsername(),
+                user.getPassword(),
+                user.getRoles().stream().map(r -> new SimpleGrantedAuthority(r.name())).collect(Collectors.toList())
+        );
+    }
+
+    /**
+     * Resolves the authenticated user behind the request principal.
+     */
+    public static AuthenticatedUser from(final Principal principal) {
+        if (principal instanceof Authentication
+                && ((Authentication) principal).getPrincipal() instanceof AuthenticatedUser) {
+            return (AuthenticatedUser) ((Authentication) principal).getPrincipal();
+        }
+        throw new AuthenticationCredentialsNotFoundException("No authenticated user for this request");
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Set<Role> getRoles() {
+        return roles;
+    }
+
+    /**
+     * Role check against the mask resolved when the principal was built; no collection is walked.
+     */
+    public boolean hasRole(final Role role) {
+        return (roleMask & role.mask()) != 0;
+    }
+
+    public boolean isAdmin() {
+        return hasRole(Role.ROLE_ADMIN);
+    }
+}
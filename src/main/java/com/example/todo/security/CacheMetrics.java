@@ -0,0 +1,39 @@
+package com.example.todo.security;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Meters of the caches that only expose their statistics, under the names Micrometer uses for caches it
+ * binds itself ({@code cache.gets}, {@code cache.evictions}, {@code cache.size}), tagged with the cache name.
+ * Like every function meter, they only hold the cache weakly: it must be a bean.
+ */
+final class CacheMetrics {
+
+    private CacheMetrics() {
+    }
+
+    static <T> MeterBinder binder(final String name, final T cache, final Function<T, CacheStats> stats,
+            final ToDoubleFunction<T> size) {
+        return registry -> {
+            FunctionCounter.builder("cache.gets", cache, c -> stats.apply(c).hitCount())
+                    .tag("cache", name).tag("result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("cache.gets", cache, c -> stats.apply(c).missCount())
+                    .tag("cache", name).tag("result", "miss")
+                    .register(registry);
+            FunctionCounter.builder("cache.evictions", cache, c -> stats.apply(c).evictionCount())
+                    .tag("cache", name)
+                    .register(registry);
+            Gauge.builder("cache.size", cache, size)
+                    .tag("cache", name)
+                    .register(registry);
+        };
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.todo.security;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Sheds load in front of the task API and the login: a request that finds its partition at its
+ * {@link ConcurrencyLimiter} limit gets a 503 at once, instead of waiting in the server queue until every
+ * queued request times out. Task reads, task writes and {@code /auth/login} are limited separately, so that
+ * slow writes or a wave of password hashing do not starve the reads.
+ * <p>
+ * Runs before the security filter chain, so that a rejected request costs no token verification. The event
+ * stream is left alone: it holds a connection, not a thread. An asynchronous request, such as the NDJSON
+ * export, keeps its slot until it completes, but its lifetime follows the client's reading rather than the
+ * server's load and is not taken as a latency sample.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final String LOGIN = "/auth/login";
+    private static final String TASKS = "/tasks";
+    private static final String EVENTS = "/tasks/events";
+
+    private final ConcurrencyLimiter reads;
+    private final ConcurrencyLimiter writes;
+    private final ConcurrencyLimiter logins;
+
+    public ConcurrencyLimitFilter(final ConcurrencyLimiter reads, final ConcurrencyLimiter writes,
+            final ConcurrencyLimiter logins) {
+        this.reads = reads;
+        this.writes = writes;
+        this.logins = logins;
+    }
+
+    @Override
+    protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response,
+            final FilterChain filterChain) throws ServletException, IOException {
+        ConcurrencyLimiter limiter = limiterFor(request);
+        if (limiter == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (!limiter.tryAcquire()) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            return;
+        }
+        long start = System.nanoTime();
+        boolean async = false;
+        try {
+            filterChain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new Release(limiter));
+                async = true;
+            }
+        } finally {
+            if (!async) {
+                limiter.release(System.nanoTime() - start);
+            }
+        }
+    }
+
+    private ConcurrencyLimiter limiterFor(final HttpServletRequest request) {
+        String path = request.getServletPath();
+        if (path.equals(LOGIN)) {
+            return logins;
+        }
+        if (!path.equals(TASKS) && !path.startsWith(TASKS + "/") || path.equals(EVENTS)) {
+            return null;
+        }
+        String method = request.getMethod();
+        return HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method) ? reads : writes;
+    }
+
+    private static final class Release implements AsyncListener {
+        private final ConcurrencyLimiter limiter;
+        private boolean released;
+
+        Release(final ConcurrencyLimiter limiter) {
+            this.limiter = limiter;
+        }
+
+        @Override
+        public void onComplete(final AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(final AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(final AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onStartAsync(final AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+
+        private synchronized void release() {
+            if (!released) {
+                released = true;
+                limiter.release();
+            }
+        }
+    }
+}
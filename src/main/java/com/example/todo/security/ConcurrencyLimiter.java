@@ -0,0 +1,124 @@
+package com.example.todo.security;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Adaptive limit on the requests in flight, after the gradient algorithm of Netflix's concurrency-limits.
+ * <p>
+ * Each completed request reports its latency, and the limit is updated once per window of as many requests as
+ * the limit (ten at least), roughly once per round trip, from the window's average compared with a baseline:
+ * while the average stays within {@code tolerance} times the baseline the limit grows by about its square root
+ * per update, and once requests start queueing the average rises and the limit shrinks in proportion, down to
+ * half at most. Updating per request instead would let a short lull raise the limit far above the capacity. The baseline drops at once to a lower average but rises only over
+ * thousands of requests, so that a sustained overload is not taken for the new normal while a genuinely
+ * slower workload eventually is. Windows spent well below the limit say nothing about the capacity and never
+ * raise it, but rising latency lowers it whatever the load.
+ * <p>
+ * Acquiring is a compare-and-set on the in-flight count; only the limit update on release is synchronized.
+ */
+public class ConcurrencyLimiter {
+
+    private static final int MIN_WINDOW = 10;
+    private static final int BASELINE_WINDOW = 10_000;
+    private static final double SMOOTHING = 0.2;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+    private volatile int limit;
+
+    private double estimatedLimit;
+    private double baselineRtt;
+    private double windowRtt;
+    private int windowSamples;
+    private int maxInFlight;
+
+    public ConcurrencyLimiter(final int initialLimit, final int minLimit, final int maxLimit,
+            final double tolerance) {
+        if (minLimit < 1 || initialLimit < minLimit || maxLimit < initialLimit || tolerance < 1) {
+            throw new IllegalArgumentException("limits must satisfy 1 <= min <= initial <= max, tolerance >= 1");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.limit = initialLimit;
+        this.estimatedLimit = initialLimit;
+    }
+
+    /**
+     * Takes a slot, unless {@link #getLimit()} requests are already in flight. A taken slot must be given
+     * back with {@link #release(long)}.
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                rejected.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Gives a slot back, with the latency in nanoseconds of the request that held it.
+     */
+    public void release(final long rttNanos) {
+        int current = inFlight.getAndDecrement();
+        onSample(rttNanos, current);
+    }
+
+    /**
+     * Gives a slot back without a latency sample, for a request whose duration says nothing about the
+     * capacity.
+     */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    private synchronized void onSample(final long rttNanos, final int inFlight) {
+        windowRtt += rttNanos;
+        windowSamples++;
+        maxInFlight = Math.max(maxInFlight, inFlight);
+        if (windowSamples < Math.max(MIN_WINDOW, limit)) {
+            return;
+        }
+        double recentRtt = windowRtt / windowSamples;
+        boolean appLimited = maxInFlight < estimatedLimit / 2;
+        int samples = windowSamples;
+        windowRtt = 0;
+        windowSamples = 0;
+        maxInFlight = 0;
+        if (baselineRtt == 0 || recentRtt < baselineRtt) {
+            baselineRtt = recentRtt;
+        } else {
+            baselineRtt += (recentRtt - baselineRtt) * Math.min(1.0, (double) samples / BASELINE_WINDOW);
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * baselineRtt / recentRtt));
+        double newLimit = Math.max(minLimit, Math.min(maxLimit, estimatedLimit * (1 - SMOOTHING)
+                + (estimatedLimit * gradient + Math.sqrt(estimatedLimit)) * SMOOTHING));
+        if (newLimit > estimatedLimit && appLimited) {
+            return;
+        }
+        estimatedLimit = newLimit;
+        limit = (int) estimatedLimit;
+    }
+}
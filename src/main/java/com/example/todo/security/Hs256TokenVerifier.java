@@ -0,0 +1,219 @@
+package com.example.todo.security;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.PrematureJwtException;
+import io.jsonwebtoken.SignatureException;
+import io.jsonwebtoken.UnsupportedJwtException;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verifier dedicated to the HS256 tokens issued by {@link JwtUtil}. It signs with a per-thread {@link Mac}
+ * initialised once, streams only the claims the filter needs out of the payload, and remembers recently
+ * verified tokens until they expire so that repeat callers skip the HMAC entirely.
+ * Failures are reported with the same exception types as the JJWT parser.
+ */
+public class Hs256TokenVerifier {
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private static final Base64.Decoder BASE64_URL = Base64.getUrlDecoder();
+
+    private final ThreadLocal<Mac> macs;
+
+    private final Cache<String, TokenClaims> verified;
+
+    public Hs256TokenVerifier(final byte[] secret, final long maximumCachedTokens) {
+        final SecretKeySpec key = new SecretKeySpec(secret, ALGORITHM);
+        this.macs = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance(ALGORITHM);
+                mac.init(key);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HmacSHA256 is not available", e);
+            }
+        });
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(maximumCachedTokens)
+                .expireAfter(new UntilTokenExpiry())
+                .recordStats()
+                .build();
+    }
+
+    public TokenClaims verify(final String token) {
+        TokenClaims claims = verified.getIfPresent(token);
+        if (claims == null) {
+            claims = verifySignatureAndDecode(token);
+            verified.put(token, claims);
+        }
+        long now = System.currentTimeMillis() / 1000;
+        if (claims.getExpiresAt() < now) {
+            verified.invalidate(token);
+            throw new ExpiredJwtException(null, null, "JWT expired at " + claims.getExpiresAt());
+        }
+        return claims;
+    }
+
+    public long cachedTokens() {
+        return verified.estimatedSize();
+    }
+
+    public CacheStats stats() {
+        return verified.stats();
+    }
+
+    private TokenClaims verifySignatureAndDecode(final String token) {
+        int headerEnd = token.indexOf('.');
+        int payloadEnd = headerEnd < 0 ? -1 : token.indexOf('.', headerEnd + 1);
+        if (headerEnd <= 0 || payloadEnd < 0 || token.indexOf('.', payloadEnd + 1) >= 0) {
+            throw new MalformedJwtException("JWT strings must contain exactly 2 period characters");
+        }
+        byte[] bytes = token.getBytes(StandardCharsets.US_ASCII);
+
+        Mac mac = macs.get();
+        mac.update(bytes, 0, payloadEnd);
+        byte[] expected = mac.doFinal();
+        if (!MessageDigest.isEqual(expected, decode(bytes, payloadEnd + 1, bytes.length))) {
+            throw new SignatureException("JWT signature does not match locally computed signature");
+        }
+
+        try {
+            checkHeader(decode(bytes, 0, headerEnd));
+            return readClaims(decode(bytes, headerEnd + 1, payloadEnd));
+        } catch (IOException e) {
+            throw new MalformedJwtException("Unable to read JWT JSON value", e);
+        }
+    }
+
+    private static byte[] decode(final byte[] bytes, final int from, final int to) {
+        try {
+            ByteBuffer decoded = BASE64_URL.decode(ByteBuffer.wrap(bytes, from, to - from));
+            byte[] result = new byte[decoded.remaining()];
+            decoded.get(result);
+            return result;
+        } catch (IllegalArgumentException e) {
+            throw new MalformedJwtException("Invalid Base64url JWT segment", e);
+        }
+    }
+
+    private static void checkHeader(final byte[] header) throws IOException {
+        String algorithm = null;
+        try (JsonParser parser = JSON.createParser(header)) {
+            expect(parser.nextToken(), JsonToken.START_OBJECT);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                parser.nextToken();
+                if ("alg".equals(field)) {
+                    algorithm = parser.getValueAsString();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        if (!"HS256".equals(algorithm)) {
+            throw new UnsupportedJwtException("Unsupported JWT algorithm " + algorithm);
+        }
+    }
+
+    private static TokenClaims readClaims(final byte[] payload) throws IOException {
+        String subject = null;
+        Long userId = null;
+        List<String> roles = new ArrayList<>(2);
+        long issuedAt = 0;
+        long expiresAt = Long.MAX_VALUE;
+        long notBefore = 0;
+        try (JsonParser parser = JSON.createParser(payload)) {
+            expect(parser.nextToken(), JsonToken.START_OBJECT);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "sub":
+                        subject = parser.getValueAsString();
+                        break;
+                    case "uid":
+                        userId = parser.getValueAsLong();
+                        break;
+                    case "roles":
+                        expect(value, JsonToken.START_ARRAY);
+                        while (parser.nextToken() != JsonToken.END_ARRAY) {
+                            roles.add(parser.getValueAsString());
+                        }
+                        break;
+                    case "iat":
+                        issuedAt = parser.getValueAsLong();
+                        break;
+                    case "exp":
+                        expiresAt = parser.getValueAsLong();
+                        break;
+                    case "nbf":
+                        notBefore = parser.getValueAsLong();
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+        }
+        if (notBefore > System.currentTimeMillis() / 1000) {
+            throw new PrematureJwtException(null, null, "JWT must not be accepted before " + notBefore);
+        }
+        return new TokenClaims(subject, userId, roles, issuedAt, expiresAt);
+    }
+
+    private static void expect(final JsonToken actual, final JsonToken expected) {
+        if (actual != expected) {
+            throw new MalformedJwtException("Unexpected JSON token " + actual);
+        }
+    }
+
+    /**
+     * Keeps a verified token no longer than its own "exp" claim.
+     */
+    private static final class UntilTokenExpiry implements Expiry<String, TokenClaims> {
+
+        @Override
+        public long expireAfterCreate(final String token, final TokenClaims claims, final long currentTime) {
+            long remainingSeconds = claims.getExpiresAt() - System.currentTimeMillis() / 1000;
+            if (remainingSeconds <= 0) {
+                return 0;
+            }
+            return remainingSeconds >= TimeUnit.NANOSECONDS.toSeconds(Long.MAX_VALUE)
+                    ? Long.MAX_VALUE
+                    : TimeUnit.SECONDS.toNanos(remainingSeconds);
+        }
+
+        @Override
+        public long expireAfterUpdate(final String token, final TokenClaims claims, final long currentTime,
+                final long currentDuration) {
+            return expireAfterCreate(token, claims, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(final String token, final TokenClaims claims, final long currentTime,
+                final long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
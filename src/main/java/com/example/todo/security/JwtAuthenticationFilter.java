@@ -2,8 +2,11 @@ package com.example.todo.security;
 
 import com.example.todo.service.UserService;
 
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -15,32 +18,67 @@ import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 @Component
-@RequiredArgsConstructor
+@Profile("!reactive")
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
 
     private final UserService userService;
 
+    private final UserDetailsCache userDetailsCache;
+
+    private final TokenRevocations tokenRevocations;
+
+    private final Timer userLookupTimer;
+
+    /**
+     * When enabled, the principal is built from the signed "uid" and "roles" claims and the user is never
+     * loaded. Tokens issued without a "uid" claim still go through the user cache.
+     */
+    @Value("${todo.security.jwt.stateless:false}")
+    private boolean stateless;
+
+    public JwtAuthenticationFilter(final JwtUtil jwtUtil, final UserService userService,
+            final UserDetailsCache userDetailsCache, final TokenRevocations tokenRevocations,
+            final MeterRegistry meterRegistry) {
+        this.jwtUtil = jwtUtil;
+        this.userService = userService;
+        this.userDetailsCache = userDetailsCache;
+        this.tokenRevocations = tokenRevocations;
+        this.userLookupTimer = Timer.builder("todo.jwt.user.lookup")
+                .description("Resolution of the authenticated user, from the cache or the database")
+                .register(meterRegistry);
+    }
+
     @Override
     protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response,
             final FilterChain filterChain) throws ServletException, IOException {
         final String authHeader = request.getHeader("Authorization");
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            String jwt = authHeader.substring(7);
-            String username = jwtUtil.extractUsername(jwt);
-
-            if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = userService.loadUserByUsername(username);
-                if (jwtUtil.validateToken(jwt, userDetails)) {
-                    UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(
-                            userDetails, null, userDetails.getAuthorities());
-                    SecurityContextHolder.getContext().setAuthentication(auth);
-                }
+            TokenClaims claims = jwtUtil.parseToken(authHeader.substring(7));
+
+            if (claims.getUsername() != null && SecurityContextHolder.getContext().getAuthentication() == null
+                    && !tokenRevocations.isRevoked(claims)) {
+                UserDetails userDetails = stateless && claims.getUserId() != null
+                        ? claims.toUserDetails()
+                        : lookUp(claims.getUsername());
+                UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(
+                        userDetails, null, userDetails.getAuthorities());
+                SecurityContextHolder.getContext().setAuthentication(auth);
             }
         }
         filterChain.doFilter(request, response);
     }
-}
\ No newline at end of file
+
+    private UserDetails lookUp(final String username) {
+        long start = System.nanoTime();
+        try {
+            return userDetailsCache.get(username, userService::loadUserByUsername);
+        } finally {
+            userLookupTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
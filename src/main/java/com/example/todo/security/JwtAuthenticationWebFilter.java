@@ -0,0 +1,71 @@
+package com.example.todo.security;
+
+import io.jsonwebtoken.JwtException;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+/**
+ * Reactive counterpart of {@link JwtAuthenticationFilter}, with the same token checks. A user missing from
+ * the {@link UserDetailsCache} is looked up without blocking, then cached. A token that does not verify leaves
+ * the request unauthenticated, so that it gets the 403 the servlet stack answers rather than a server error.
+ */
+public class JwtAuthenticationWebFilter implements WebFilter {
+
+    private final JwtUtil jwtUtil;
+
+    private final ReactiveUserDetailsService userDetailsService;
+
+    private final UserDetailsCache userDetailsCache;
+
+    private final TokenRevocations tokenRevocations;
+
+    private final boolean stateless;
+
+    public JwtAuthenticationWebFilter(final JwtUtil jwtUtil, final ReactiveUserDetailsService userDetailsService,
+            final UserDetailsCache userDetailsCache, final TokenRevocations tokenRevocations,
+            final boolean stateless) {
+        this.jwtUtil = jwtUtil;
+        this.userDetailsService = userDetailsService;
+        this.userDetailsCache = userDetailsCache;
+        this.tokenRevocations = tokenRevocations;
+        this.stateless = stateless;
+    }
+
+    @Override
+    public Mono<Void> filter(final ServerWebExchange exchange, final WebFilterChain chain) {
+        final String authHeader = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return chain.filter(exchange);
+        }
+        return Mono.fromCallable(() -> jwtUtil.parseToken(authHeader.substring(7)))
+                .onErrorResume(JwtException.class, e -> Mono.empty())
+                .filter(claims -> claims.getUsername() != null && !tokenRevocations.isRevoked(claims))
+                .flatMap(this::userDetails)
+                .map(userDetails -> ReactiveSecurityContextHolder.withAuthentication(
+                        new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities())))
+                .defaultIfEmpty(Context.empty())
+                .flatMap(context -> chain.filter(exchange).contextWrite(context));
+    }
+
+    private Mono<UserDetails> userDetails(final TokenClaims claims) {
+        if (stateless && claims.getUserId() != null) {
+            return Mono.just(claims.toUserDetails());
+        }
+        UserDetails cached = userDetailsCache.getIfPresent(claims.getUsername());
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+        return userDetailsService.findByUsername(claims.getUsername())
+                .doOnNext(userDetails -> userDetailsCache.put(claims.getUsername(), userDetails));
+    }
+}
@@ -1,34 +1,86 @@
 package com.example.todo.security;
 
+import io.jsonwebtoken.JwtBuilder;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.impl.TextCodec;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @Component
 public class JwtUtil {
     private final String SECRET = "secret123"; // à externaliser
 
+    private final Hs256TokenVerifier verifier;
+
+    private final Timer generateTimer;
+    private final Timer verifyTimer;
+
+    public JwtUtil(@Value("${todo.security.jwt.verified-cache-size:10000}") final long verifiedCacheSize,
+            final MeterRegistry meterRegistry) {
+        // JJWT treats a String signing key as Base64: decode it the same way so issued tokens stay verifiable.
+        this.verifier = new Hs256TokenVerifier(TextCodec.BASE64.decode(SECRET), verifiedCacheSize);
+        this.generateTimer = Timer.builder("todo.jwt.generate").description("Signing of issued tokens")
+                .register(meterRegistry);
+        this.verifyTimer = Timer.builder("todo.jwt.verify").description("Verification of request tokens")
+                .register(meterRegistry);
+        CacheMetrics.binder("verified-tokens", verifier, Hs256TokenVerifier::stats, Hs256TokenVerifier::cachedTokens)
+                .bindTo(meterRegistry);
+    }
+
     public String generateToken(UserDetails userDetails) {
-        return Jwts.builder()
-                .setSubject(userDetails.getUsername())
-                .claim("roles", userDetails.getAuthorities().stream().map(GrantedAuthority::getAuthority).collect(Collectors.toList()))
-                .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + 86400000))
-                .signWith(  SignatureAlgorithm.HS256, SECRET)
-                .compact();
+        long start = System.nanoTime();
+        try {
+            return buildToken(userDetails);
+        } finally {
+            generateTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Verifies the token once, returning everything the request filter needs.
+     */
+    public TokenClaims parseToken(String token) {
+        long start = System.nanoTime();
+        try {
+            return verifier.verify(token);
+        } finally {
+            verifyTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
     }
 
     public String extractUsername(String token) {
-        return Jwts.parser().setSigningKey(SECRET).parseClaimsJws(token).getBody().getSubject();
+        return parseToken(token).getUsername();
     }
 
     public boolean validateToken(String token, UserDetails userDetails) {
         return extractUsername(token).equals(userDetails.getUsername());
     }
-}
\ No newline at end of file
+
+    public Hs256TokenVerifier getVerifier() {
+        return verifier;
+    }
+
+    private String buildToken(UserDetails userDetails) {
+        JwtBuilder builder = Jwts.builder();
+        if (userDetails instanceof AuthenticatedUser) {
+            builder.claim("uid", ((AuthenticatedUser) userDetails).getId());
+        }
+        return builder
+                .setSubject(userDetails.getUsername())
+                .claim("roles", userDetails.getAuthorities().stream().map(GrantedAuthority::getAuthority).collect(Collectors.toList()))
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 86400000))
+                .signWith(  SignatureAlgorithm.HS256, SECRET)
+                .compact();
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.todo.security;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Rate limits requests once {@link JwtAuthenticationFilter} has run: {@code /auth/**} per client address,
+ * everything else per authenticated user. Unauthenticated requests elsewhere are left to the 403 of the
+ * security rules. Every limited response carries the {@code RateLimit-Limit}, {@code RateLimit-Remaining}
+ * and {@code RateLimit-Reset} headers; a request over the limit gets a 429 with {@code Retry-After}.
+ * <p>
+ * Not a bean, so that it only runs inside the security filter chain, after authentication.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    static final String LIMIT = "RateLimit-Limit";
+    static final String REMAINING = "RateLimit-Remaining";
+    static final String RESET = "RateLimit-Reset";
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final RateLimiter rateLimiter;
+
+    public RateLimitFilter(final RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response,
+            final FilterChain filterChain) throws ServletException, IOException {
+        RateLimiter.Bucket bucket = bucketFor(request);
+        if (bucket == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        long result = bucket.tryAcquire(System.nanoTime());
+        response.setHeader(LIMIT, Integer.toString(bucket.getLimit().getCapacity()));
+        if (result < 0) {
+            String retryAfter = Long.toString(seconds(-result));
+            response.setHeader(REMAINING, "0");
+            response.setHeader(RESET, retryAfter);
+            response.setHeader(HttpHeaders.RETRY_AFTER, retryAfter);
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            return;
+        }
+        response.setHeader(REMAINING, Integer.toString(bucket.remaining(result)));
+        response.setHeader(RESET, Long.toString(seconds(result)));
+        filterChain.doFilter(request, response);
+    }
+
+    private RateLimiter.Bucket bucketFor(final HttpServletRequest request) {
+        if (request.getServletPath().startsWith("/auth/")) {
+            return rateLimiter.forAddress(request.getRemoteAddr());
+        }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser) {
+            return rateLimiter.forUser((AuthenticatedUser) authentication.getPrincipal());
+        }
+        return null;
+    }
+
+    private static long seconds(final long nanos) {
+        return (nanos + NANOS_PER_SECOND - 1) / NANOS_PER_SECOND;
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.todo.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Token buckets of the request rate limits: one per user for the authenticated endpoints, administrators
+ * having their own limit, and one per client address for {@code /auth/**}.
+ * <p>
+ * Buckets are created on first use and dropped once idle for long enough to be full again, which loses
+ * nothing. Taking a token is a compare-and-set on a single long, without locks or allocation.
+ */
+public class RateLimiter {
+
+    private static final int MAXIMUM_BUCKETS = 100_000;
+
+    private final Limit userLimit;
+    private final Limit adminLimit;
+    private final Limit addressLimit;
+
+    private final Cache<String, Bucket> users;
+    private final Cache<String, Bucket> admins;
+    private final Cache<String, Bucket> addresses;
+
+    private final Function<String, Bucket> newUserBucket;
+    private final Function<String, Bucket> newAdminBucket;
+    private final Function<String, Bucket> newAddressBucket;
+
+    public RateLimiter(final Limit userLimit, final Limit adminLimit, final Limit addressLimit) {
+        this.userLimit = userLimit;
+        this.adminLimit = adminLimit;
+        this.addressLimit = addressLimit;
+        this.users = buckets(userLimit);
+        this.admins = buckets(adminLimit);
+        this.addresses = buckets(addressLimit);
+        this.newUserBucket = key -> new Bucket(userLimit, System.nanoTime());
+        this.newAdminBucket = key -> new Bucket(adminLimit, System.nanoTime());
+        this.newAddressBucket = key -> new Bucket(addressLimit, System.nanoTime());
+    }
+
+    public Bucket forUser(final AuthenticatedUser user) {
+        return user.isAdmin()
+                ? admins.get(user.getUsername(), newAdminBucket)
+                : users.get(user.getUsername(), newUserBucket);
+    }
+
+    public Bucket forAddress(final String address) {
+        return addresses.get(address, newAddressBucket);
+    }
+
+    public Limit getUserLimit() {
+        return userLimit;
+    }
+
+    public Limit getAdminLimit() {
+        return adminLimit;
+    }
+
+    public Limit getAddressLimit() {
+        return addressLimit;
+    }
+
+    private static Cache<String, Bucket> buckets(final Limit limit) {
+        return Caffeine.newBuilder()
+                .maximumSize(MAXIMUM_BUCKETS)
+                .expireAfterAccess(Duration.ofNanos(limit.window))
+                .executor(Runnable::run)
+                .build();
+    }
+
+    /**
+     * At most {@code capacity} requests at once, refilled at {@code perSecond} requests per second.
+     */
+    public static final class Limit {
+        private final int capacity;
+        private final long nanosPerToken;
+        private final long window;
+
+        public Limit(final int capacity, final double perSecond) {
+            if (capacity < 1 || perSecond <= 0) {
+                throw new IllegalArgumentException("capacity and rate must be positive");
+            }
+            this.capacity = capacity;
+            this.nanosPerToken = Math.max(1L, (long) (1_000_000_000L / perSecond));
+            this.window = capacity * nanosPerToken;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+    }
+
+    /**
+     * A token bucket held as the instant it will be full again, as in the generic cell rate algorithm:
+     * taking a token pushes that instant one refill interval further, which is allowed as long as it stays
+     * within the time the whole bucket takes to refill.
+     */
+    public static final class Bucket {
+        private final Limit limit;
+        private final AtomicLong fullAt;
+
+        Bucket(final Limit limit, final long now) {
+            this.limit = limit;
+            this.fullAt = new AtomicLong(now);
+        }
+
+        /**
+         * Takes a token at {@code now}, from {@link System#nanoTime()}.
+         *
+         * @return when positive, the token was taken and the bucket is full again that many nanoseconds
+         *         later; when negative, the bucket is empty and a token will be available in minus that many
+         *         nanoseconds
+         */
+        public long tryAcquire(final long now) {
+            while (true) {
+                long current = fullAt.get();
+                long next = Math.max(current, now) + limit.nanosPerToken;
+                long untilFull = next - now;
+                if (untilFull > limit.window) {
+                    return limit.window - untilFull;
+                }
+                if (fullAt.compareAndSet(current, next)) {
+                    return untilFull;
+                }
+            }
+        }
+
+        /**
+         * Tokens left once the bucket is full again in {@code untilFull} nanoseconds.
+         */
+        public int remaining(final long untilFull) {
+            return (int) ((limit.window - untilFull) / limit.nanosPerToken);
+        }
+
+        public Limit getLimit() {
+            return limit;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.todo.security;
+
+import com.example.todo.repository.ReactiveChangeVersionRepository;
+import com.example.todo.repository.ReactiveTaskRepository;
+import com.example.todo.service.ReactiveTaskService;
+import com.example.todo.service.TombstonePurger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.time.Duration;
+
+/**
+ * Task beans of the "reactive" profile.
+ */
+@Configuration
+@Profile("reactive")
+@EnableScheduling
+public class ReactiveTaskConfig {
+
+    @Bean
+    public ReactiveTaskRepository reactiveTaskRepository(final DatabaseClient databaseClient) {
+        return new ReactiveTaskRepository(databaseClient);
+    }
+
+    @Bean
+    public ReactiveChangeVersionRepository reactiveChangeVersionRepository(final DatabaseClient databaseClient) {
+        return new ReactiveChangeVersionRepository(databaseClient);
+    }
+
+    @Bean
+    public ReactiveTaskService reactiveTaskService(final ReactiveTaskRepository taskRepository,
+            final ReactiveChangeVersionRepository changeVersionRepository) {
+        return new ReactiveTaskService(taskRepository, changeVersionRepository);
+    }
+
+    /**
+     * Runs on a scheduler thread, which may wait for the purge.
+     */
+    @Bean
+    public TombstonePurger reactiveTombstonePurger(final ReactiveTaskService taskService,
+            @Value("${todo.sync.tombstone-retention:30d}") final Duration retention) {
+        return new TombstonePurger(deletedBefore -> taskService.purgeTombstones(deletedBefore).block(), retention);
+    }
+}
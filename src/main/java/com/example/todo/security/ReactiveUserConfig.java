@@ -0,0 +1,29 @@
+package com.example.todo.security;
+
+import com.example.todo.repository.ReactiveUserRepository;
+import com.example.todo.service.ReactiveUserService;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * User beans of the "reactive" profile. The password encoder and the caches come from {@link UserConfig}.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveUserConfig {
+
+    @Bean
+    public ReactiveUserRepository reactiveUserRepository(final DatabaseClient databaseClient) {
+        return new ReactiveUserRepository(databaseClient);
+    }
+
+    @Bean
+    public ReactiveUserService reactiveUserService(final ReactiveUserRepository userRepository,
+            final PasswordEncoder passwordEncoder, final UserDetailsCache userDetailsCache) {
+        return new ReactiveUserService(userRepository, passwordEncoder, userDetailsCache);
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.todo.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.actuate.metrics.AutoTimer;
+import org.springframework.boot.actuate.metrics.data.DefaultRepositoryTagsProvider;
+import org.springframework.boot.actuate.metrics.data.MetricsRepositoryMethodInvocationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.data.repository.core.support.RepositoryFactoryCustomizer;
+import org.springframework.util.function.SingletonSupplier;
+
+/**
+ * The {@code spring.data.repository.invocations} timer of every repository method, tagged with the repository,
+ * the method and the outcome.
+ * <p>
+ * Replaces Spring Boot's RepositoryMetricsAutoConfiguration, excluded in application.yml: in Boot 2.5.0 its
+ * post-processor creates the meter registry while the post-processors are still being registered, before the
+ * meter binders and the histogram settings can be applied to it. Here the registry is only looked up once the
+ * first repository is built.
+ */
+@Configuration
+public class RepositoryMetricsConfig {
+
+    private static final String METRIC_NAME = "spring.data.repository.invocations";
+
+    @Bean
+    public static BeanPostProcessor repositoryMetricsPostProcessor(final ObjectProvider<MeterRegistry> meterRegistry) {
+        SingletonSupplier<MetricsRepositoryMethodInvocationListener> listener = SingletonSupplier.of(() ->
+                new MetricsRepositoryMethodInvocationListener(meterRegistry.getObject(),
+                        new DefaultRepositoryTagsProvider(), METRIC_NAME, AutoTimer.ENABLED));
+        RepositoryFactoryCustomizer customizer = factory -> factory.addInvocationListener(listener.obtain());
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(final Object bean, final String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport) {
+                    ((RepositoryFactoryBeanSupport<?, ?, ?>) bean).addRepositoryFactoryCustomizer(customizer);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.todo.security;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Overload protection of the servlet stack: adaptive limits on the task reads, task writes and logins in
+ * flight, enforced by a {@link ConcurrencyLimitFilter} ahead of the security filter chain.
+ */
+@Configuration
+@Profile("!reactive")
+@ConditionalOnProperty(name = "todo.concurrency-limit.enabled", matchIfMissing = true)
+public class ServerConfig {
+
+    @Bean
+    public ConcurrencyLimiter readConcurrencyLimiter(
+            @Value("${todo.concurrency-limit.read.initial-limit:20}") final int initialLimit,
+            @Value("${todo.concurrency-limit.read.max-limit:200}") final int maxLimit,
+            @Value("${todo.concurrency-limit.min-limit:4}") final int minLimit,
+            @Value("${todo.concurrency-limit.tolerance:2.0}") final double tolerance) {
+        return new ConcurrencyLimiter(initialLimit, minLimit, maxLimit, tolerance);
+    }
+
+    @Bean
+    public ConcurrencyLimiter writeConcurrencyLimiter(
+            @Value("${todo.concurrency-limit.write.initial-limit:10}") final int initialLimit,
+            @Value("${todo.concurrency-limit.write.max-limit:100}") final int maxLimit,
+            @Value("${todo.concurrency-limit.min-limit:4}") final int minLimit,
+            @Value("${todo.concurrency-limit.tolerance:2.0}") final double tolerance) {
+        return new ConcurrencyLimiter(initialLimit, minLimit, maxLimit, tolerance);
+    }
+
+    @Bean
+    public ConcurrencyLimiter loginConcurrencyLimiter(
+            @Value("${todo.concurrency-limit.login.initial-limit:4}") final int initialLimit,
+            @Value("${todo.concurrency-limit.login.max-limit:32}") final int maxLimit,
+            @Value("${todo.concurrency-limit.min-limit:4}") final int minLimit,
+            @Value("${todo.concurrency-limit.tolerance:2.0}") final double tolerance) {
+        return new ConcurrencyLimiter(initialLimit, minLimit, maxLimit, tolerance);
+    }
+
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(
+            final ConcurrencyLimiter readConcurrencyLimiter, final ConcurrencyLimiter writeConcurrencyLimiter,
+            final ConcurrencyLimiter loginConcurrencyLimiter) {
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(
+                new ConcurrencyLimitFilter(readConcurrencyLimiter, writeConcurrencyLimiter, loginConcurrencyLimiter));
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 1);
+        return registration;
+    }
+
+    @Bean
+    public MeterBinder concurrencyLimitMetrics(final ConcurrencyLimiter readConcurrencyLimiter,
+            final ConcurrencyLimiter writeConcurrencyLimiter, final ConcurrencyLimiter loginConcurrencyLimiter) {
+        return registry -> {
+            bind(registry, "read", readConcurrencyLimiter);
+            bind(registry, "write", writeConcurrencyLimiter);
+            bind(registry, "login", loginConcurrencyLimiter);
+        };
+    }
+
+    private static void bind(final MeterRegistry registry, final String partition, final ConcurrencyLimiter limiter) {
+        Gauge.builder("todo.concurrency.limit", limiter, ConcurrencyLimiter::getLimit)
+                .tag("partition", partition)
+                .register(registry);
+        Gauge.builder("todo.concurrency.in.flight", limiter, ConcurrencyLimiter::getInFlight)
+                .tag("partition", partition)
+                .register(registry);
+        FunctionCounter.builder("todo.concurrency.rejected", limiter, ConcurrencyLimiter::getRejectedCount)
+                .tag("partition", partition)
+                .register(registry);
+    }
+}
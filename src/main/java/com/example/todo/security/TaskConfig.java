@@ -1,21 +1,121 @@
 package com.example.todo.security;
 
+import com.example.todo.repository.ChangeVersionRepository;
 import com.example.todo.repository.TaskRepository;
+import com.example.todo.service.TaskChangeListener;
+import com.example.todo.service.TaskEventBus;
+import com.example.todo.service.TaskEvents;
+import com.example.todo.service.TaskListCache;
+import com.example.todo.service.TaskSearchIndex;
 import com.example.todo.service.TaskService;
+import com.example.todo.service.TaskStatistics;
+import com.example.todo.service.TaskVersions;
+import com.example.todo.service.TombstonePurger;
 import com.example.todo.service.UserService;
 
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
 
 /**
  * @author PAQUIN Pierre
  */
 @Configuration
+@Profile("!reactive")
+@EnableScheduling
 public class TaskConfig {
 
     @Bean
-    public TaskService taskService(final TaskRepository taskRepository, final UserService userService)
-            throws Exception {
-        return new TaskService(taskRepository, userService);
+    public TaskSearchIndex taskSearchIndex() {
+        return new TaskSearchIndex();
+    }
+
+    @Bean
+    public TaskStatistics taskStatistics() {
+        return new TaskStatistics();
+    }
+
+    @Bean
+    public TaskVersions taskVersions(final ChangeVersionRepository changeVersionRepository,
+            @Value("${todo.tasks.versions.maximum-size:10000}") final long maximumSize) {
+        return new TaskVersions(changeVersionRepository, maximumSize);
+    }
+
+    @Bean
+    public TaskListCache taskListCache(
+            @Value("${todo.tasks.list-cache.maximum-size:64MB}") final DataSize maximumSize) {
+        return new TaskListCache(maximumSize.toBytes());
+    }
+
+    @Bean
+    public MeterBinder taskListCacheMetrics(final TaskListCache taskListCache) {
+        return registry -> {
+            CacheMetrics.binder("task-list", taskListCache, TaskListCache::stats, TaskListCache::size).bindTo(registry);
+            Gauge.builder("todo.tasks.list.cache.bytes", taskListCache, TaskListCache::weightedSize)
+                    .description("Encoded JSON held by the task list cache")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public TaskEventBus taskEventBus(@Value("${todo.events.buffer-size:64}") final int bufferSize,
+            @Value("${todo.events.dispatch-threads:2}") final int dispatchThreads,
+            @Value("${todo.events.heartbeat:30s}") final Duration heartbeat) {
+        return new TaskEventBus(bufferSize, dispatchThreads, heartbeat);
+    }
+
+    @Bean
+    public MeterBinder taskEventBusMetrics(final TaskEventBus taskEventBus) {
+        return registry -> {
+            Gauge.builder("todo.events.subscribers", taskEventBus, TaskEventBus::subscriberCount)
+                    .register(registry);
+            FunctionCounter.builder("todo.events.published", taskEventBus, TaskEventBus::publishedCount)
+                    .register(registry);
+            FunctionCounter.builder("todo.events.evicted", taskEventBus, TaskEventBus::evictedCount)
+                    .description("Subscribers dropped for falling behind")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public TaskEvents taskEvents(final List<TaskChangeListener> listeners) {
+        return new TaskEvents(listeners);
+    }
+
+    @Bean
+    public TaskService taskService(final TaskRepository taskRepository, final UserService userService,
+            final TaskEvents taskEvents, final ChangeVersionRepository changeVersionRepository) throws Exception {
+        return new TaskService(taskRepository, userService, taskEvents, changeVersionRepository);
+    }
+
+    @Bean
+    public TombstonePurger tombstonePurger(final TaskService taskService,
+            @Value("${todo.sync.tombstone-retention:30d}") final Duration retention) {
+        return new TombstonePurger(taskService::purgeTombstones, retention);
+    }
+
+    /**
+     * Fills the search index and the statistics from the database in a single pass over the tasks, once every
+     * bean is created but before the web server accepts requests: no search or statistics request sees them
+     * half-built, and no write can commit during the pass and be overwritten by the row it streamed earlier.
+     */
+    @Bean
+    public SmartInitializingSingleton taskViewsLoader(final TaskService taskService, final TaskSearchIndex taskSearchIndex,
+            final TaskStatistics taskStatistics) {
+        return () -> taskService.forEachTask((ownerId, task) -> {
+            taskSearchIndex.onTaskSaved(ownerId, task);
+            taskStatistics.onTaskSaved(ownerId, task);
+        });
     }
 }
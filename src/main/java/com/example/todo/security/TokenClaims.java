@@ -0,0 +1,60 @@
+package com.example.todo.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Verified content of a JWT issued by {@link JwtUtil}: subject, user id, roles and validity window
+ * (epoch seconds). Tokens issued before the "uid" claim existed have no user id.
+ */
+public final class TokenClaims {
+
+    private final String username;
+    private final Long userId;
+    private final List<String> roles;
+    private final long issuedAt;
+    private final long expiresAt;
+
+    public TokenClaims(final String username, final Long userId, final List<String> roles, final long issuedAt,
+            final long expiresAt) {
+        this.username = username;
+        this.userId = userId;
+        this.roles = List.copyOf(roles);
+        this.issuedAt = issuedAt;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public List<String> getRoles() {
+        return roles;
+    }
+
+    public long getIssuedAt() {
+        return issuedAt;
+    }
+
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    /**
+     * Builds the principal straight from the signed claims, without looking the user up.
+     */
+    public UserDetails toUserDetails() {
+        List<GrantedAuthority> authorities = roles.stream()
+                .map(SimpleGrantedAuthority::new)
+                .collect(Collectors.toList());
+        return new AuthenticatedUser(userId, username, "", authorities);
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.todo.security;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-user "not before" instants: every token of a user issued before the last revocation is rejected.
+ * Checking a token is a single map lookup, so stateless authentication keeps no database dependency.
+ * <p>
+ * Tokens carry their issue time in whole seconds, so a token issued in the second of the revocation is
+ * rejected as well: it may predate it. A user who logs in again within that second has to log in once more.
+ */
+public class TokenRevocations {
+
+    private final Map<String, Long> notBefore = new ConcurrentHashMap<>();
+
+    public void revokeAll(final String username) {
+        notBefore.put(username, System.currentTimeMillis() / 1000);
+    }
+
+    public boolean isRevoked(final TokenClaims claims) {
+        Long revokedAt = notBefore.get(claims.getUsername());
+        return revokedAt != null && claims.getIssuedAt() <= revokedAt;
+    }
+}
@@ -1,13 +1,24 @@
 package com.example.todo.security;
 
+import com.example.todo.repository.ChangeVersionRepository;
 import com.example.todo.repository.UserRepository;
 import com.example.todo.service.UserService;
 
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
 /**
  * @author PAQUIN Pierre
  */
@@ -15,13 +26,66 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 public class UserConfig {
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public BoundedPasswordEncoder passwordEncoder(
+            @Value("${todo.security.password-hashing.threads:4}") final int threads,
+            @Value("${todo.security.password-hashing.queue-capacity:64}") final int queueCapacity,
+            @Value("${todo.security.password-hashing.retry-after-seconds:1}") final long retryAfterSeconds) {
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(), threads, queueCapacity, retryAfterSeconds);
+    }
+
+    @Bean
+    public MeterBinder passwordHashingMetrics(final BoundedPasswordEncoder passwordEncoder) {
+        return registry -> {
+            FunctionTimer.builder("todo.password.hashing", passwordEncoder, BoundedPasswordEncoder::hashCount,
+                    BoundedPasswordEncoder::totalHashNanos, TimeUnit.NANOSECONDS)
+                    .description("BCrypt hashes and comparisons, run on the password-hashing pool")
+                    .register(registry);
+            Gauge.builder("todo.password.hashing.active", passwordEncoder, BoundedPasswordEncoder::activeCount)
+                    .register(registry);
+            Gauge.builder("todo.password.hashing.queued", passwordEncoder, BoundedPasswordEncoder::queueDepth)
+                    .register(registry);
+            FunctionCounter.builder("todo.password.hashing.rejected", passwordEncoder,
+                    BoundedPasswordEncoder::rejectedCount)
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public UserDetailsCache userDetailsCache(
+            @Value("${todo.security.user-cache.maximum-size:10000}") final long maximumSize,
+            @Value("${todo.security.user-cache.time-to-live:5m}") final Duration timeToLive) {
+        return new UserDetailsCache(maximumSize, timeToLive);
+    }
+
+    @Bean
+    public MeterBinder userDetailsCacheMetrics(final UserDetailsCache userDetailsCache) {
+        return CacheMetrics.binder("user-details", userDetailsCache, UserDetailsCache::stats, UserDetailsCache::size);
+    }
+
+    @Bean
+    @Profile("!reactive")
+    public RateLimiter rateLimiter(@Value("${todo.rate-limit.user.capacity:100}") final int userCapacity,
+            @Value("${todo.rate-limit.user.per-second:50}") final double userPerSecond,
+            @Value("${todo.rate-limit.admin.capacity:500}") final int adminCapacity,
+            @Value("${todo.rate-limit.admin.per-second:250}") final double adminPerSecond,
+            @Value("${todo.rate-limit.auth.capacity:20}") final int authCapacity,
+            @Value("${todo.rate-limit.auth.per-second:5}") final double authPerSecond) {
+        return new RateLimiter(new RateLimiter.Limit(userCapacity, userPerSecond),
+                new RateLimiter.Limit(adminCapacity, adminPerSecond),
+                new RateLimiter.Limit(authCapacity, authPerSecond));
+    }
+
+    @Bean
+    public TokenRevocations tokenRevocations() {
+        return new TokenRevocations();
     }
 
     @Bean
-    public UserService userService(final UserRepository userRepository, final PasswordEncoder passwordEncoder)
-            throws Exception {
-        return new UserService(userRepository, passwordEncoder);
+    @Profile("!reactive")
+    public UserService userService(final UserRepository userRepository, final PasswordEncoder passwordEncoder,
+            final UserDetailsCache userDetailsCache, final TokenRevocations tokenRevocations,
+            final ChangeVersionRepository changeVersionRepository) throws Exception {
+        return new UserService(userRepository, passwordEncoder, userDetailsCache, tokenRevocations,
+                changeVersionRepository);
     }
 }
@@ -0,0 +1,54 @@
+package com.example.todo.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Bounded, time-limited cache of the {@link UserDetails} resolved for authenticated requests, so the
+ * JWT filter does not reload the user and its roles from the database on every call.
+ */
+public class UserDetailsCache {
+
+    private final Cache<String, UserDetails> cache;
+
+    public UserDetailsCache(final long maximumSize, final Duration timeToLive) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive)
+                .recordStats()
+                .build();
+    }
+
+    public UserDetails get(final String username, final Function<String, UserDetails> loader) {
+        return this.cache.get(username, loader);
+    }
+
+    /**
+     * Cached entry only, for callers that load the user asynchronously and {@link #put} it afterwards.
+     */
+    public UserDetails getIfPresent(final String username) {
+        return this.cache.getIfPresent(username);
+    }
+
+    public void put(final String username, final UserDetails userDetails) {
+        this.cache.put(username, userDetails);
+    }
+
+    public void invalidate(final String username) {
+        this.cache.invalidate(username);
+    }
+
+    public long size() {
+        return this.cache.estimatedSize();
+    }
+
+    public CacheStats stats() {
+        return this.cache.stats();
+    }
+}
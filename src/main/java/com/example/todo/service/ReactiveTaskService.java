@@ -0,0 +1,200 @@
+package com.example.todo.service;
+
+import com.example.todo.dto.TaskChangesDTO;
+import com.example.todo.dto.TaskDTO;
+import com.example.todo.dto.TaskPatchDTO;
+import com.example.todo.entity.ChangeVersion;
+import com.example.todo.entity.Task;
+import com.example.todo.repository.ReactiveChangeVersionRepository;
+import com.example.todo.repository.ReactiveTaskRepository;
+import com.example.todo.security.AuthenticatedUser;
+import lombok.AllArgsConstructor;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Non-blocking counterpart of {@link TaskService}, used by the "reactive" profile. It answers the same way,
+ * applying the same {@link TaskRules}, with one ownership-scoped statement per write. Writes stamp the tasks
+ * with the owner's change version and deletes leave tombstones, so that delta synchronisation and the
+ * {@code If-Match} preconditions behave as on the servlet stack.
+ */
+@AllArgsConstructor
+public class ReactiveTaskService {
+
+    private final ReactiveTaskRepository taskRepo;
+    private final ReactiveChangeVersionRepository changeVersions;
+
+    @Transactional(readOnly = true)
+    public Flux<TaskDTO> getTasksForUser(Long ownerId) {
+        return taskRepo.findDTOsByOwnerId(ownerId);
+    }
+
+    /**
+     * Returns at most {@code limit} tasks of the user with an id greater than {@code afterId}, ordered by id.
+     */
+    @Transactional(readOnly = true)
+    public Flux<TaskDTO> getTasksForUser(Long ownerId, long afterId, int limit) {
+        return taskRepo.findDTOsByOwnerIdAfter(ownerId, afterId, limit);
+    }
+
+    /**
+     * The user's committed change version, 0 before the first write.
+     */
+    public Mono<Long> getVersion(Long ownerId) {
+        return changeVersions.findVersion(ownerId).defaultIfEmpty(0L);
+    }
+
+    /**
+     * Same answer as {@link TaskService#getChanges}.
+     */
+    @Transactional(readOnly = true)
+    public Mono<ResponseEntity<TaskChangesDTO>> getChanges(Long ownerId, long since) {
+        return changeVersions.findById(ownerId)
+                .defaultIfEmpty(new ChangeVersion(ownerId))
+                .flatMap(current -> {
+                    long version = current.getVersion();
+                    if (since < 0 || since > version || since > 0 && since < current.getPurgedVersion()) {
+                        return Mono.just(ResponseEntity.status(HttpStatus.GONE).<TaskChangesDTO>build());
+                    }
+                    if (since == version) {
+                        return Mono.just(ResponseEntity.ok(new TaskChangesDTO(version, List.of(), List.of())));
+                    }
+                    Mono<List<Long>> deleted = since == 0
+                            ? Mono.just(List.of())
+                            : taskRepo.findIdsDeleted(ownerId, since, version).collectList();
+                    return taskRepo.findDTOsChanged(ownerId, since, version).collectList()
+                            .flatMap(tasks -> deleted.map(ids ->
+                                    ResponseEntity.ok(new TaskChangesDTO(version, tasks, ids))));
+                });
+    }
+
+    @Transactional
+    public Mono<ResponseEntity<Task>> create(Task task, AuthenticatedUser user) {
+        if (!TaskRules.canUserCreateOrUpdateTask(user, task.isDone())) {
+            return Mono.just(ResponseEntity.status(403).build());
+        }
+        task.setDescription(TaskRules.markInternal(user, task.getDescription()));
+        return nextChangeVersion(user.getId())
+                .flatMap(version -> taskRepo.insert(user.getId(), task.getTitle(), task.getDescription(),
+                        task.isDone(), version)
+                        .map(id -> {
+                            task.setId(id);
+                            task.setChangeVersion(version);
+                            return ResponseEntity.status(HttpStatus.CREATED).eTag(Long.toString(version)).body(task);
+                        }));
+    }
+
+    /**
+     * Same answer as {@link TaskService#update}, including the {@code unmodifiedSince} precondition.
+     */
+    @Transactional
+    public Mono<ResponseEntity<Task>> update(Long id, Task task, AuthenticatedUser user, Long unmodifiedSince) {
+        if (!TaskRules.canUserCreateOrUpdateTask(user, task.isDone())) {
+            return notOwned(id);
+        }
+        Long ownerId = user.getId();
+        String description = TaskRules.markInternal(user, task.getDescription());
+        return nextChangeVersion(ownerId)
+                .flatMap(version -> taskRepo.updateOwned(id, ownerId, task.getTitle(), description, task.isDone(),
+                        version, orAnyVersion(unmodifiedSince))
+                        .flatMap(updatedRows -> {
+                            if (updatedRows == 0) {
+                                return changeVersions.decrement(ownerId)
+                                        .then(notWritten(id, ownerId, unmodifiedSince));
+                            }
+                            Task updated = new Task();
+                            updated.setId(id);
+                            updated.setTitle(task.getTitle());
+                            updated.setDescription(description);
+                            updated.setDone(task.isDone());
+                            return Mono.just(ResponseEntity.ok().eTag(Long.toString(version)).body(updated));
+                        }));
+    }
+
+    @Transactional
+    public Mono<ResponseEntity<TaskDTO>> patch(Long id, TaskPatchDTO patch, AuthenticatedUser user) {
+        if (patch.hasDone() && !TaskRules.canUserCreateOrUpdateTask(user, patch.getDone())) {
+            return notOwned(id);
+        }
+        if (patch.hasDescription()) {
+            patch.setDescription(TaskRules.markInternal(user, patch.getDescription()));
+        }
+        Long ownerId = user.getId();
+        Mono<Boolean> written = patch.isEmpty()
+                ? Mono.just(true)
+                : nextChangeVersion(ownerId)
+                        .flatMap(version -> taskRepo.patchOwned(id, ownerId, patch, version))
+                        .flatMap(rows -> rows == 0
+                                ? changeVersions.decrement(ownerId).thenReturn(false)
+                                : Mono.just(true));
+        return written.flatMap(rowWritten -> !rowWritten
+                ? notOwned(id)
+                : taskRepo.findDTOByIdAndOwnerId(id, ownerId)
+                        .map(ResponseEntity::ok)
+                        .switchIfEmpty(Mono.defer(() -> notOwned(id))));
+    }
+
+    /**
+     * Replaces an owned task with a tombstone, under the precondition of {@link #update}.
+     */
+    @Transactional
+    public Mono<ResponseEntity<Void>> delete(Long id, Long ownerId, Long unmodifiedSince) {
+        return nextChangeVersion(ownerId)
+                .flatMap(version -> taskRepo.deleteOwned(id, ownerId, version, orAnyVersion(unmodifiedSince),
+                        Instant.now()))
+                .flatMap(deletedRows -> deletedRows == 0
+                        ? changeVersions.decrement(ownerId).then(notWritten(id, ownerId, unmodifiedSince))
+                        : Mono.just(ResponseEntity.noContent().build()));
+    }
+
+    /**
+     * Same as {@link TaskService#purgeTombstones}.
+     */
+    @Transactional
+    public Mono<Integer> purgeTombstones(Instant deletedBefore) {
+        return changeVersions.raisePurgedVersions(deletedBefore)
+                .then(taskRepo.purgeDeleted(deletedBefore));
+    }
+
+    /**
+     * Increments the owner's change version as {@link TaskService} does, creating the counter when missing.
+     */
+    private Mono<Long> nextChangeVersion(Long ownerId) {
+        return changeVersions.increment(ownerId)
+                .flatMap(rows -> rows == 0
+                        ? changeVersions.insert(ownerId, 1).thenReturn(1L)
+                        : changeVersions.findVersion(ownerId));
+    }
+
+    private static long orAnyVersion(Long unmodifiedSince) {
+        return unmodifiedSince == null ? Long.MAX_VALUE : unmodifiedSince;
+    }
+
+    /**
+     * 412 when the write was conditional and the task is the user's, otherwise as {@link #notOwned}.
+     */
+    private <T> Mono<ResponseEntity<T>> notWritten(Long id, Long ownerId, Long unmodifiedSince) {
+        if (unmodifiedSince == null) {
+            return notOwned(id);
+        }
+        return taskRepo.findDTOByIdAndOwnerId(id, ownerId)
+                .map(task -> ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).<T>build())
+                .switchIfEmpty(Mono.defer(() -> notOwned(id)));
+    }
+
+    /**
+     * As {@link TaskService}'s: 403 for a task that exists, 404 for a missing one.
+     */
+    private <T> Mono<ResponseEntity<T>> notOwned(Long id) {
+        return taskRepo.existsById(id)
+                .map(exists -> ResponseEntity.status(TaskRules.notOwnedStatus(exists)).build());
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.todo.service;
+
+import com.example.todo.dto.UserCredentials;
+import com.example.todo.entity.Role;
+import com.example.todo.repository.ReactiveUserRepository;
+import com.example.todo.security.AuthenticatedUser;
+import com.example.todo.security.UserDetailsCache;
+import lombok.AllArgsConstructor;
+
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.annotation.Transactional;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Set;
+
+/**
+ * Non-blocking counterpart of {@link UserService}, used by the "reactive" profile. Password hashing is
+ * CPU-bound, so it is moved off the event loop.
+ */
+@AllArgsConstructor
+public class ReactiveUserService implements ReactiveUserDetailsService {
+
+    private final ReactiveUserRepository userRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final UserDetailsCache userDetailsCache;
+
+    @Transactional
+    public Mono<Void> register(String username, String rawPassword) {
+        return userRepository.existsByUsername(username)
+                .flatMap(exists -> exists
+                        ? Mono.error(new RuntimeException("User already exists"))
+                        : Mono.fromCallable(() -> passwordEncoder.encode(rawPassword))
+                                .subscribeOn(Schedulers.boundedElastic())
+                                .flatMap(password -> userRepository.insert(username, password, Set.of(Role.ROLE_USER))))
+                .doOnSuccess(id -> userDetailsCache.invalidate(username))
+                .then();
+    }
+
+    /**
+     * Looks the user up for authentication purposes; empty when there is no such user.
+     */
+    public Mono<UserCredentials> findCredentials(String username) {
+        return userRepository.findCredentialsByUsername(username)
+                .collectList()
+                .flatMap(rows -> Mono.justOrEmpty(UserCredentials.fold(rows)));
+    }
+
+    @Override
+    public Mono<UserDetails> findByUsername(String username) {
+        return findCredentials(username).map(AuthenticatedUser::of);
+    }
+}
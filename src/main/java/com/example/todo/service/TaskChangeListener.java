@@ -0,0 +1,30 @@
+package com.example.todo.service;
+
+import com.example.todo.dto.TaskDTO;
+
+/**
+ * Receives the task changes made through {@link TaskService}, once they are committed.
+ */
+public interface TaskChangeListener {
+
+    /**
+     * A task was created or modified; {@code task} is its full state after the change.
+     */
+    void onTaskSaved(Long ownerId, TaskDTO task);
+
+    /**
+     * A task was created. Listeners that do not tell creations from updates get it as a save.
+     */
+    default void onTaskCreated(Long ownerId, TaskDTO task) {
+        onTaskSaved(ownerId, task);
+    }
+
+    void onTaskDeleted(Long ownerId, Long taskId);
+
+    /**
+     * The user's change version moved to {@code version}. Notifications of concurrent writers may come in
+     * any order.
+     */
+    default void onVersionChanged(Long ownerId, long version) {
+    }
+}
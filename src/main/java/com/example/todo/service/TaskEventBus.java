@@ -0,0 +1,241 @@
+package com.example.todo.service;
+
+import com.example.todo.dto.TaskDTO;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fans the committed task changes out to the subscribers of their owner, e.g. server-sent event streams.
+ * <p>
+ * Publishing only queues the event: each subscriber has its own bounded buffer, drained to its {@link Sink}
+ * by a small shared pool, so a subscriber costs no thread while it is idle. A subscriber whose buffer is full
+ * is evicted rather than slowing the others or the writer down; it has to resynchronise when it reconnects.
+ * A periodic heartbeat goes through the same buffers and evicts the subscribers whose connection is gone.
+ */
+public class TaskEventBus implements TaskChangeListener {
+
+    /**
+     * Receiving end of a subscription. Called from the dispatch threads, one event at a time per subscriber.
+     */
+    public interface Sink {
+
+        void send(String name, Object data) throws IOException;
+
+        void heartbeat() throws IOException;
+
+        void close();
+    }
+
+    private static final Event HEARTBEAT = new Event(null, null);
+
+    private final Map<Long, Set<Subscription>> subscriptions = new ConcurrentHashMap<>();
+    private final int bufferSize;
+    private final Executor dispatcher;
+    private final ExecutorService dispatchPool;
+    private final ScheduledExecutorService heartbeats;
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+
+    public TaskEventBus(final int bufferSize, final int dispatchThreads, final Duration heartbeatInterval) {
+        this.bufferSize = bufferSize;
+        this.dispatchPool = Executors.newFixedThreadPool(dispatchThreads, daemonThreads("task-events-"));
+        this.dispatcher = dispatchPool;
+        this.heartbeats = Executors.newSingleThreadScheduledExecutor(daemonThreads("task-events-heartbeat-"));
+        this.heartbeats.scheduleWithFixedDelay(this::heartbeat, heartbeatInterval.toMillis(),
+                heartbeatInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Bus without heartbeats, delivering on {@code dispatcher}.
+     */
+    TaskEventBus(final int bufferSize, final Executor dispatcher) {
+        this.bufferSize = bufferSize;
+        this.dispatcher = dispatcher;
+        this.dispatchPool = null;
+        this.heartbeats = null;
+    }
+
+    public Subscription subscribe(final Long ownerId, final Sink sink) {
+        Subscription subscription = new Subscription(ownerId, sink);
+        subscriptions.compute(ownerId, (id, owned) -> {
+            Set<Subscription> set = owned == null ? ConcurrentHashMap.newKeySet() : owned;
+            set.add(subscription);
+            return set;
+        });
+        return subscription;
+    }
+
+    @Override
+    public void onTaskCreated(final Long ownerId, final TaskDTO task) {
+        publish(ownerId, new Event("created", task));
+    }
+
+    @Override
+    public void onTaskSaved(final Long ownerId, final TaskDTO task) {
+        publish(ownerId, new Event("updated", task));
+    }
+
+    @Override
+    public void onTaskDeleted(final Long ownerId, final Long taskId) {
+        publish(ownerId, new Event("deleted", Map.of("id", taskId)));
+    }
+
+    public int subscriberCount() {
+        return subscriptions.values().stream().mapToInt(Set::size).sum();
+    }
+
+    public long publishedCount() {
+        return published.sum();
+    }
+
+    public long evictedCount() {
+        return evicted.sum();
+    }
+
+    public void shutdown() {
+        if (heartbeats != null) {
+            heartbeats.shutdownNow();
+            dispatchPool.shutdownNow();
+        }
+        subscriptions.values().forEach(owned -> owned.forEach(Subscription::cancel));
+    }
+
+    private void publish(final Long ownerId, final Event event) {
+        Set<Subscription> owned = subscriptions.get(ownerId);
+        if (owned != null) {
+            published.increment();
+            owned.forEach(subscription -> subscription.offer(event));
+        }
+    }
+
+    private void heartbeat() {
+        subscriptions.values().forEach(owned -> owned.forEach(subscription -> subscription.offer(HEARTBEAT)));
+    }
+
+    private void remove(final Subscription subscription) {
+        subscriptions.computeIfPresent(subscription.ownerId, (id, owned) -> {
+            owned.remove(subscription);
+            return owned.isEmpty() ? null : owned;
+        });
+    }
+
+    private static ThreadFactory daemonThreads(final String prefix) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static final class Event {
+        private final String name;
+        private final Object data;
+
+        Event(final String name, final Object data) {
+            this.name = name;
+            this.data = data;
+        }
+
+        void deliverTo(final Sink sink) throws IOException {
+            if (name == null) {
+                sink.heartbeat();
+            } else {
+                sink.send(name, data);
+            }
+        }
+    }
+
+    /**
+     * A subscriber with its buffer. At most one dispatch thread drains it at a time, so events arrive in order.
+     */
+    public final class Subscription {
+        private final Long ownerId;
+        private final Sink sink;
+        private final ArrayDeque<Event> buffer = new ArrayDeque<>();
+        private boolean draining;
+        private boolean closed;
+
+        private Subscription(final Long ownerId, final Sink sink) {
+            this.ownerId = ownerId;
+            this.sink = sink;
+        }
+
+        /**
+         * Stops the deliveries and closes the sink; does nothing once cancelled.
+         */
+        public void cancel() {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                buffer.clear();
+            }
+            remove(this);
+            sink.close();
+        }
+
+        private void offer(final Event event) {
+            boolean overflow = false;
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                if (buffer.size() == bufferSize) {
+                    overflow = true;
+                } else {
+                    buffer.add(event);
+                    if (draining) {
+                        return;
+                    }
+                    draining = true;
+                }
+            }
+            if (overflow) {
+                evicted.increment();
+                cancel();
+                return;
+            }
+            try {
+                dispatcher.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                cancel();
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                Event event;
+                synchronized (this) {
+                    event = closed ? null : buffer.poll();
+                    if (event == null) {
+                        draining = false;
+                        return;
+                    }
+                }
+                try {
+                    event.deliverTo(sink);
+                } catch (IOException | RuntimeException e) {
+                    cancel();
+                    return;
+                }
+            }
+        }
+    }
+}
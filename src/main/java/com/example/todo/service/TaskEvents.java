@@ -0,0 +1,68 @@
+package com.example.todo.service;
+
+import com.example.todo.dto.TaskDTO;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hands task changes to the registered {@link TaskChangeListener}s after the surrounding transaction has
+ * committed, so that no listener sees a change that is rolled back. Outside a transaction they are
+ * notified straight away. A failing listener is logged and does not affect the others.
+ */
+@Slf4j
+public class TaskEvents {
+
+    private final List<TaskChangeListener> listeners;
+
+    public TaskEvents(final List<TaskChangeListener> listeners) {
+        this.listeners = List.copyOf(listeners);
+    }
+
+    public void created(final Long ownerId, final TaskDTO task) {
+        afterCommit(listener -> listener.onTaskCreated(ownerId, task));
+    }
+
+    public void saved(final Long ownerId, final TaskDTO task) {
+        afterCommit(listener -> listener.onTaskSaved(ownerId, task));
+    }
+
+    public void deleted(final Long ownerId, final Long taskId) {
+        afterCommit(listener -> listener.onTaskDeleted(ownerId, taskId));
+    }
+
+    public void versionChanged(final Long ownerId, final long version) {
+        afterCommit(listener -> listener.onVersionChanged(ownerId, version));
+    }
+
+    private void afterCommit(final Consumer<TaskChangeListener> notification) {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            dispatch(notification);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                dispatch(notification);
+            }
+        });
+    }
+
+    private void dispatch(final Consumer<TaskChangeListener> notification) {
+        for (TaskChangeListener listener : listeners) {
+            try {
+                notification.accept(listener);
+            } catch (RuntimeException e) {
+                log.warn("Task change listener {} failed", listener.getClass().getSimpleName(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.todo.service;
+
+import com.example.todo.dto.TaskDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import java.util.function.Supplier;
+
+/**
+ * Encoded JSON of each user's full task list, ready to be written to the response as is. Entries are
+ * weighed by their size in bytes against a budget, and dropped as soon as a change of the user commits.
+ * Each entry also records the change version it was loaded at, and is only served for that version, so an
+ * entry put back by a load racing with a write is never mistaken for the new list.
+ */
+public class TaskListCache implements TaskChangeListener {
+
+    /**
+     * Rough per-entry cost besides the bytes themselves: key, entry, array header and cache node.
+     */
+    private static final int ENTRY_OVERHEAD = 96;
+
+    private final Cache<Long, Entry> cache;
+
+    public TaskListCache(final long maximumBytes) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maximumBytes)
+                .weigher((Long ownerId, Entry entry) -> ENTRY_OVERHEAD + entry.json.length)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * The user's list as of {@code version}, loaded with {@code loader} when not cached for that version.
+     */
+    public byte[] get(final Long ownerId, final long version, final Supplier<byte[]> loader) {
+        Entry entry = cache.getIfPresent(ownerId);
+        if (entry != null && entry.version == version) {
+            return entry.json;
+        }
+        byte[] json = loader.get();
+        cache.asMap().merge(ownerId, new Entry(version, json),
+                (cached, loaded) -> cached.version > loaded.version ? cached : loaded);
+        return json;
+    }
+
+    @Override
+    public void onVersionChanged(final Long ownerId, final long version) {
+        cache.invalidate(ownerId);
+    }
+
+    @Override
+    public void onTaskSaved(final Long ownerId, final TaskDTO task) {
+    }
+
+    @Override
+    public void onTaskDeleted(final Long ownerId, final Long taskId) {
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    /**
+     * Total weight of the entries, in bytes.
+     */
+    public long weightedSize() {
+        return cache.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0L)).orElse(0L);
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    private static final class Entry {
+        private final long version;
+        private final byte[] json;
+
+        Entry(final long version, final byte[] json) {
+            this.version = version;
+            this.json = json;
+        }
+    }
+}
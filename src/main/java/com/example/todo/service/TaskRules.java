@@ -0,0 +1,53 @@
+package com.example.todo.service;
+
+import com.example.todo.security.AuthenticatedUser;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Task rules shared by {@link TaskService} and {@link ReactiveTaskService}: who may write a done task,
+ * how admin writes are flagged, and how a write on a task that is not owned is answered.
+ */
+public final class TaskRules {
+
+    public static final String INTERNAL_USE = "[Internal Use]";
+
+    private TaskRules() {
+    }
+
+    /**
+     * Only admins may create or update a task as done.
+     */
+    public static boolean canUserCreateOrUpdateTask(AuthenticatedUser user, boolean done) {
+        if (!done) {
+            return true;
+        }
+
+        return user.isAdmin();
+    }
+
+    /**
+     * Tasks written by an admin are flagged "[Internal Use]" in their description, exactly once.
+     * Every write path goes through here; the check is a bit test on the authenticated user's role mask.
+     */
+    public static String markInternal(AuthenticatedUser user, String description) {
+        if (!user.isAdmin()) {
+            return description;
+        }
+        if (description == null) {
+            return INTERNAL_USE;
+        }
+        return isInternal(description) ? description : INTERNAL_USE + " " + description;
+    }
+
+    public static boolean isInternal(String description) {
+        return description != null && description.startsWith(INTERNAL_USE);
+    }
+
+    /**
+     * 403 when the task exists but belongs to someone else, 404 when there is no such task.
+     */
+    public static HttpStatus notOwnedStatus(boolean exists) {
+        return exists ? HttpStatus.FORBIDDEN : HttpStatus.NOT_FOUND;
+    }
+}
@@ -0,0 +1,367 @@
+package com.example.todo.service;
+
+import com.example.todo.dto.TaskDTO;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index of task titles and descriptions, one per owner, kept up to date from the
+ * committed {@link TaskService} changes and rebuilt from the database at startup.
+ * <p>
+ * Text is split on anything but letters and digits, lower-cased and stripped of accents. Every query term
+ * is a prefix, and a task matches when all of them match one of its terms. A match scores the weight of the
+ * matched terms (3 per occurrence in the title, 1 in the description), doubled for a whole-term match;
+ * results are ordered by score, then by task id.
+ */
+public class TaskSearchIndex implements TaskChangeListener {
+
+    private static final int TITLE_WEIGHT = 3;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private static final Comparator<Hit> RANKING =
+            Comparator.comparingInt(Hit::getScore).reversed().thenComparingLong(hit -> hit.getTask().getId());
+
+    private final Map<Long, OwnerIndex> owners = new ConcurrentHashMap<>();
+
+    @Override
+    public void onTaskSaved(final Long ownerId, final TaskDTO task) {
+        owners.computeIfAbsent(ownerId, id -> new OwnerIndex()).put(task);
+    }
+
+    @Override
+    public void onTaskDeleted(final Long ownerId, final Long taskId) {
+        OwnerIndex index = owners.get(ownerId);
+        if (index != null) {
+            index.remove(taskId);
+        }
+    }
+
+    /**
+     * Returns at most {@code limit} matches ranked after {@code after} (null for the first page).
+     */
+    public List<Hit> search(final Long ownerId, final String query, final int limit, final Hit.Position after) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        OwnerIndex index = owners.get(ownerId);
+        if (terms.isEmpty() || index == null) {
+            return List.of();
+        }
+        return index.search(terms, limit, after);
+    }
+
+    public int size(final Long ownerId) {
+        OwnerIndex index = owners.get(ownerId);
+        return index == null ? 0 : index.size();
+    }
+
+    static List<String> tokenize(final String text) {
+        if (text == null || text.isEmpty()) {
+            return List.of();
+        }
+        String folded = COMBINING_MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        List<String> tokens = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            boolean inWord = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+            if (inWord && start < 0) {
+                start = i;
+            } else if (!inWord && start >= 0) {
+                tokens.add(folded.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * A matching task with its score.
+     */
+    public static final class Hit {
+        private final TaskDTO task;
+        private final int score;
+
+        public Hit(final TaskDTO task, final int score) {
+            this.task = task;
+            this.score = score;
+        }
+
+        public TaskDTO getTask() {
+            return task;
+        }
+
+        public int getScore() {
+            return score;
+        }
+
+        public Position position() {
+            return new Position(score, task.getId());
+        }
+
+        /**
+         * Place of a hit in the ranking, used as a keyset cursor between pages.
+         */
+        public static final class Position {
+            private final int score;
+            private final long taskId;
+
+            public Position(final int score, final long taskId) {
+                this.score = score;
+                this.taskId = taskId;
+            }
+
+            public int getScore() {
+                return score;
+            }
+
+            public long getTaskId() {
+                return taskId;
+            }
+
+            boolean isBefore(final int otherScore, final long otherTaskId) {
+                return score > otherScore || (score == otherScore && taskId < otherTaskId);
+            }
+        }
+    }
+
+    private static boolean ranksBefore(final Hit hit, final int score, final long taskId) {
+        return hit.score > score || (hit.score == score && hit.task.getId() < taskId);
+    }
+
+    /**
+     * A task as indexed: its terms sorted, with their weights.
+     */
+    private static final class Entry {
+        private final TaskDTO task;
+        private final String[] terms;
+        private final int[] weights;
+
+        Entry(final TaskDTO task) {
+            this.task = task;
+            TreeMap<String, Integer> weighted = new TreeMap<>();
+            for (String term : tokenize(task.getTitle())) {
+                weighted.merge(term, TITLE_WEIGHT, Integer::sum);
+            }
+            for (String term : tokenize(task.getDescription())) {
+                weighted.merge(term, DESCRIPTION_WEIGHT, Integer::sum);
+            }
+            this.terms = weighted.keySet().toArray(new String[0]);
+            this.weights = weighted.values().stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        /**
+         * Score of {@code prefix} in this task, 0 when no term starts with it.
+         */
+        int score(final String prefix) {
+            int i = Arrays.binarySearch(terms, prefix);
+            if (i < 0) {
+                i = -i - 1;
+            }
+            int score = 0;
+            for (; i < terms.length && terms[i].startsWith(prefix); i++) {
+                score += terms[i].length() == prefix.length() ? 2 * weights[i] : weights[i];
+            }
+            return score;
+        }
+    }
+
+    /**
+     * Documents holding one term, sorted by document number, with the term's weight in each.
+     */
+    private static final class Postings {
+        private int[] docs = new int[4];
+        private int[] weights = new int[4];
+        private int size;
+
+        void add(final int doc, final int weight) {
+            int i = -Arrays.binarySearch(docs, 0, size, doc) - 1;
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            System.arraycopy(docs, i, docs, i + 1, size - i);
+            System.arraycopy(weights, i, weights, i + 1, size - i);
+            docs[i] = doc;
+            weights[i] = weight;
+            size++;
+        }
+
+        void remove(final int doc) {
+            int i = Arrays.binarySearch(docs, 0, size, doc);
+            if (i >= 0) {
+                System.arraycopy(docs, i + 1, docs, i, size - i - 1);
+                System.arraycopy(weights, i + 1, weights, i, size - i - 1);
+                size--;
+            }
+        }
+    }
+
+    /**
+     * The index of one owner. Tasks are numbered densely (numbers of deleted tasks are reused) so that
+     * postings are primitive arrays and a query can sum scores into a plain array.
+     */
+    private static final class OwnerIndex {
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private final Map<Long, Integer> docByTask = new HashMap<>();
+        private final TreeMap<String, Postings> postings = new TreeMap<>();
+        private Entry[] docs = new Entry[16];
+        private int docCount;
+        private int[] freeDocs = new int[16];
+        private int freeCount;
+
+        int size() {
+            lock.readLock().lock();
+            try {
+                return docByTask.size();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        void put(final TaskDTO task) {
+            Entry entry = new Entry(task);
+            lock.writeLock().lock();
+            try {
+                Integer doc = docByTask.get(task.getId());
+                if (doc != null) {
+                    unlink(doc);
+                } else {
+                    doc = allocate();
+                    docByTask.put(task.getId(), doc);
+                }
+                docs[doc] = entry;
+                for (int i = 0; i < entry.terms.length; i++) {
+                    postings.computeIfAbsent(entry.terms[i], t -> new Postings()).add(doc, entry.weights[i]);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void remove(final Long taskId) {
+            lock.writeLock().lock();
+            try {
+                Integer doc = docByTask.remove(taskId);
+                if (doc != null) {
+                    unlink(doc);
+                    docs[doc] = null;
+                    if (freeCount == freeDocs.length) {
+                        freeDocs = Arrays.copyOf(freeDocs, freeCount * 2);
+                    }
+                    freeDocs[freeCount++] = doc;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private int allocate() {
+            if (freeCount > 0) {
+                return freeDocs[--freeCount];
+            }
+            if (docCount == docs.length) {
+                docs = Arrays.copyOf(docs, docCount * 2);
+            }
+            return docCount++;
+        }
+
+        private void unlink(final int doc) {
+            for (String term : docs[doc].terms) {
+                Postings list = postings.get(term);
+                list.remove(doc);
+                if (list.size == 0) {
+                    postings.remove(term);
+                }
+            }
+        }
+
+        List<Hit> search(final List<String> terms, final int limit, final Hit.Position after) {
+            lock.readLock().lock();
+            try {
+                // Candidates come from the term with the fewest postings; the others are checked per task.
+                String driver = null;
+                NavigableMap<String, Postings> expansions = null;
+                int cost = Integer.MAX_VALUE;
+                for (String term : terms) {
+                    NavigableMap<String, Postings> termExpansions =
+                            postings.subMap(term, true, term + Character.MAX_VALUE, false);
+                    int termCost = 0;
+                    for (Postings list : termExpansions.values()) {
+                        termCost += list.size;
+                    }
+                    if (termCost < cost) {
+                        driver = term;
+                        expansions = termExpansions;
+                        cost = termCost;
+                    }
+                }
+                if (cost == 0) {
+                    return List.of();
+                }
+
+                // A task can hold several expansions of the driver: their scores are summed per task.
+                int[] candidates = new int[cost];
+                int[] scores = new int[docCount];
+                int candidateCount = 0;
+                for (Map.Entry<String, Postings> expansion : expansions.entrySet()) {
+                    Postings list = expansion.getValue();
+                    int factor = expansion.getKey().length() == driver.length() ? 2 : 1;
+                    for (int i = 0; i < list.size; i++) {
+                        int doc = list.docs[i];
+                        if (scores[doc] == 0) {
+                            candidates[candidateCount++] = doc;
+                        }
+                        scores[doc] += factor * list.weights[i];
+                    }
+                }
+
+                // Worst hit kept at the head, so the queue holds the best `limit` hits seen so far.
+                PriorityQueue<Hit> best = new PriorityQueue<>(limit + 1, RANKING.reversed());
+                for (int c = 0; c < candidateCount; c++) {
+                    Entry entry = docs[candidates[c]];
+                    int score = scores[candidates[c]];
+                    for (int t = 0; t < terms.size() && score > 0; t++) {
+                        if (terms.get(t) != driver) {
+                            int termScore = entry.score(terms.get(t));
+                            score = termScore == 0 ? 0 : score + termScore;
+                        }
+                    }
+                    long taskId = entry.task.getId();
+                    if (score == 0 || (after != null && !after.isBefore(score, taskId))) {
+                        continue;
+                    }
+                    if (best.size() == limit && ranksBefore(best.peek(), score, taskId)) {
+                        continue;
+                    }
+                    best.add(new Hit(entry.task, score));
+                    if (best.size() > limit) {
+                        best.poll();
+                    }
+                }
+
+                List<Hit> page = new ArrayList<>(best);
+                page.sort(RANKING);
+                return Collections.unmodifiableList(page);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+    }
+}
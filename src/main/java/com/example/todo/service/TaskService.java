@@ -1,67 +1,365 @@
 package com.example.todo.service;
 
-import com.example.todo.entity.Role;
+import com.example.todo.dto.TaskBatchResult;
+import com.example.todo.dto.TaskChangesDTO;
+import com.example.todo.dto.TaskDTO;
+import com.example.todo.dto.TaskPatchDTO;
+import com.example.todo.entity.ChangeVersion;
 import com.example.todo.entity.Task;
 import com.example.todo.entity.User;
+import com.example.todo.repository.ChangeVersionRepository;
 import com.example.todo.repository.TaskRepository;
+import com.example.todo.security.AuthenticatedUser;
 import lombok.AllArgsConstructor;
 
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 
-import javax.transaction.Transactional;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @AllArgsConstructor
 public class TaskService {
     private final TaskRepository taskRepo;
     private final UserService userService;
+    private final TaskEvents taskEvents;
+    private final ChangeVersionRepository changeVersions;
 
-    public List<Task> getTasksForUser(String username) {
-        return taskRepo.findByOwnerUsername(username);
+    @Transactional(readOnly = true)
+    public List<TaskDTO> getTasksForUser(Long ownerId) {
+        return taskRepo.findDTOsByOwnerId(ownerId);
+    }
+
+    /**
+     * Returns at most {@code limit} tasks of the user with an id greater than {@code afterId}, ordered by id.
+     */
+    @Transactional(readOnly = true)
+    public List<TaskDTO> getTasksForUser(Long ownerId, long afterId, int limit) {
+        return taskRepo.findDTOsByOwnerIdAfter(ownerId, afterId, PageRequest.of(0, limit));
+    }
+
+    /**
+     * The user's changes since the version {@code since} a client last synchronised at: the live tasks
+     * written after it, the ids of the tasks deleted after it, and the version to ask from next time.
+     * {@code since} 0 is a first synchronisation and only lists the live tasks. Answers 410 when the
+     * deletions since {@code since} are no longer all known, or when {@code since} is ahead of the user's
+     * version; the client then has to synchronise from 0.
+     */
+    @Transactional(readOnly = true)
+    public ResponseEntity<TaskChangesDTO> getChanges(Long ownerId, long since) {
+        // Read first: rows written by transactions committing meanwhile carry a later version and are left
+        // for the next call rather than reported under a version that does not include them.
+        ChangeVersion current = changeVersions.findById(ownerId).orElseGet(() -> new ChangeVersion(ownerId));
+        long version = current.getVersion();
+        if (since < 0 || since > version || since > 0 && since < current.getPurgedVersion()) {
+            return ResponseEntity.status(HttpStatus.GONE).build();
+        }
+        if (since == version) {
+            return ResponseEntity.ok(new TaskChangesDTO(version, List.of(), List.of()));
+        }
+        List<TaskDTO> tasks = taskRepo.findDTOsChanged(ownerId, since, version);
+        List<Long> deleted = since == 0 ? List.of() : taskRepo.findIdsDeleted(ownerId, since, version);
+        return ResponseEntity.ok(new TaskChangesDTO(version, tasks, deleted));
+    }
+
+    /**
+     * Hands the user's tasks to {@code action} one at a time, as they are read from the database cursor.
+     */
+    @Transactional(readOnly = true)
+    public void forEachTaskOfUser(Long ownerId, Consumer<TaskDTO> action) {
+        try (Stream<TaskDTO> tasks = taskRepo.streamDTOsByOwnerId(ownerId)) {
+            tasks.forEach(action);
+        }
+    }
+
+    /**
+     * Hands every task to {@code action} together with its owner id, owner by owner.
+     */
+    @Transactional(readOnly = true)
+    public void forEachTask(BiConsumer<Long, TaskDTO> action) {
+        for (Long ownerId : taskRepo.findOwnerIds()) {
+            try (Stream<TaskDTO> tasks = taskRepo.streamDTOsByOwnerId(ownerId)) {
+                tasks.forEach(task -> action.accept(ownerId, task));
+            }
+        }
     }
 
     @Transactional
-    public ResponseEntity<Task> create(Task task, String username) {
-        User owner = userService.findByUsername(username).orElseThrow();
-        if (!canUserCreateOrUpdateTask(owner.getRoles(), task)) {
+    public ResponseEntity<Task> create(Task task, AuthenticatedUser user) {
+        if (!TaskRules.canUserCreateOrUpdateTask(user, task.isDone())) {
             return ResponseEntity.status(403).build();
         }
-        task.setOwner(owner);
+        task.setId(null);
+        task.setOwner(userService.getReference(user.getId()));
+        task.setDescription(TaskRules.markInternal(user, task.getDescription()));
+        task.setChangeVersion(nextChangeVersion(user.getId()));
         Task createdTask = taskRepo.save(task);
-        return ResponseEntity.status(HttpStatus.CREATED).body(createdTask);
+        taskEvents.versionChanged(user.getId(), task.getChangeVersion());
+        taskEvents.created(user.getId(), toDTO(task));
+        return ResponseEntity.status(HttpStatus.CREATED).eTag(Long.toString(task.getChangeVersion()))
+                .body(createdTask);
     }
 
+    /**
+     * Overwrites an owned task with one UPDATE statement. The role rule is decided from the authenticated
+     * user before touching the database, and ownership is part of the statement's WHERE clause. With
+     * {@code unmodifiedSince}, the task must not have changed after that version of the user's tasks, or the
+     * answer is 412. The response's ETag is the version the task is written at.
+     */
     @Transactional
-    public ResponseEntity<Task> update(Long id, Task task, String username) {
-        Task existing = taskRepo.findById(id).orElseThrow();
-        if (!existing.getOwner().getUsername().equals(username))
-            return ResponseEntity.status(403).build();
+    public ResponseEntity<Task> update(Long id, Task task, AuthenticatedUser user, Long unmodifiedSince) {
+        if (!TaskRules.canUserCreateOrUpdateTask(user, task.isDone())) {
+            return notOwned(id);
+        }
+        String description = TaskRules.markInternal(user, task.getDescription());
+        long version = nextChangeVersion(user.getId());
+        if (taskRepo.updateOwned(id, user.getId(), task.getTitle(), description, task.isDone(), version,
+                orAnyVersion(unmodifiedSince)) == 0) {
+            changeVersions.decrement(user.getId());
+            return notWritten(id, user.getId(), unmodifiedSince);
+        }
+        taskEvents.versionChanged(user.getId(), version);
 
-        if (!canUserCreateOrUpdateTask(existing.getOwner().getRoles(), task)) {
-            return ResponseEntity.status(403).build();
+        Task updated = new Task();
+        updated.setId(id);
+        updated.setTitle(task.getTitle());
+        updated.setDescription(description);
+        updated.setDone(task.isDone());
+        taskEvents.saved(user.getId(), toDTO(updated));
+        return ResponseEntity.ok().eTag(Long.toString(version)).body(updated);
+    }
+
+    /**
+     * Applies a merge patch to an owned task: one UPDATE whose SET clause holds only the fields sent,
+     * followed by a projection read of the result. Setting {@code done} keeps the admin-only rule, and a
+     * patched description gets the admin marker.
+     */
+    @Transactional
+    public ResponseEntity<TaskDTO> patch(Long id, TaskPatchDTO patch, AuthenticatedUser user) {
+        if (patch.hasDone() && !TaskRules.canUserCreateOrUpdateTask(user, patch.getDone())) {
+            return notOwned(id);
+        }
+        if (patch.hasDescription()) {
+            patch.setDescription(TaskRules.markInternal(user, patch.getDescription()));
+        }
+        if (!patch.isEmpty()) {
+            long version = nextChangeVersion(user.getId());
+            if (taskRepo.patchOwned(id, user.getId(), patch, version) == 0) {
+                changeVersions.decrement(user.getId());
+                return notOwned(id);
+            }
+            taskEvents.versionChanged(user.getId(), version);
+        }
+
+        Optional<TaskDTO> patched = taskRepo.findDTOByIdAndOwnerId(id, user.getId());
+        if (patched.isEmpty()) {
+            return notOwned(id);
         }
-        existing.setTitle(task.getTitle());
-        existing.setDescription(task.getDescription());
-        existing.setDone(task.isDone());
-        return ResponseEntity.ok(taskRepo.save(existing));
+        taskEvents.saved(user.getId(), patched.get());
+        return ResponseEntity.ok(patched.get());
     }
 
+    /**
+     * Replaces an owned task with a tombstone, which {@link #purgeTombstones} compacts away later.
+     * {@code unmodifiedSince} is the precondition of {@link #update}.
+     */
     @Transactional
-    public ResponseEntity<Void> delete(Long id, String username) {
-        Task existing = taskRepo.findById(id).orElseThrow();
-        if (!existing.getOwner().getUsername().equals(username))
-            return ResponseEntity.status(403).build();
-        taskRepo.delete(existing);
+    public ResponseEntity<Void> delete(Long id, Long ownerId, Long unmodifiedSince) {
+        long version = nextChangeVersion(ownerId);
+        if (taskRepo.deleteOwned(id, ownerId, version, orAnyVersion(unmodifiedSince), Instant.now()) == 0) {
+            changeVersions.decrement(ownerId);
+            return notWritten(id, ownerId, unmodifiedSince);
+        }
+        taskEvents.versionChanged(ownerId, version);
+        taskEvents.deleted(ownerId, id);
         return ResponseEntity.noContent().build();
     }
 
-    private boolean canUserCreateOrUpdateTask(Set<Role> userRoles, Task task) {
-        if (!task.isDone()) {
-            return true;
+    /**
+     * Creates every task the user may create, in one transaction. The owner reference is resolved once;
+     * ids come from the pooled sequence, so the inserts are flushed as JDBC batches at commit.
+     */
+    @Transactional
+    public ResponseEntity<List<TaskBatchResult>> createAll(List<Task> tasks, AuthenticatedUser user) {
+        User owner = userService.getReference(user.getId());
+        List<Task> accepted = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            task.setId(null);
+            if (TaskRules.canUserCreateOrUpdateTask(user, task.isDone())) {
+                task.setOwner(owner);
+                task.setDescription(TaskRules.markInternal(user, task.getDescription()));
+                accepted.add(task);
+            }
+        }
+        if (!accepted.isEmpty()) {
+            long version = nextChangeVersion(user.getId());
+            accepted.forEach(task -> task.setChangeVersion(version));
+            taskRepo.saveAll(accepted);
+            taskEvents.versionChanged(user.getId(), version);
+        }
+
+        List<TaskBatchResult> results = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            if (task.getId() == null) {
+                results.add(TaskBatchResult.failed(null, HttpStatus.FORBIDDEN.value()));
+                continue;
+            }
+            TaskDTO created = toDTO(task);
+            taskEvents.created(user.getId(), created);
+            results.add(TaskBatchResult.of(HttpStatus.CREATED.value(), created));
+        }
+        return ResponseEntity.status(HttpStatus.MULTI_STATUS).body(results);
+    }
+
+    /**
+     * Overwrites the user's tasks in one transaction. Ownership is settled for the whole batch with one
+     * query; the loaded tasks are then updated in place and flushed as JDBC batches at commit.
+     */
+    @Transactional
+    public ResponseEntity<List<TaskBatchResult>> updateAll(List<Task> tasks, AuthenticatedUser user) {
+        Set<Long> ids = tasks.stream()
+                .map(Task::getId)
+                .filter(id -> id != null)
+                .collect(Collectors.toSet());
+        Map<Long, Task> owned = ids.isEmpty() ? Map.of() : taskRepo.findAllOwned(user.getId(), ids).stream()
+                .collect(Collectors.toMap(Task::getId, Function.identity()));
+        Set<Long> existing = existingAmong(ids, owned.keySet());
+        Long version = null;
+
+        List<TaskBatchResult> results = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            Task target = task.getId() == null ? null : owned.get(task.getId());
+            if (task.getId() == null) {
+                results.add(TaskBatchResult.failed(null, HttpStatus.BAD_REQUEST.value()));
+            } else if (target == null) {
+                results.add(TaskBatchResult.failed(task.getId(), notOwnedStatus(task.getId(), existing)));
+            } else if (!TaskRules.canUserCreateOrUpdateTask(user, task.isDone())) {
+                results.add(TaskBatchResult.failed(task.getId(), HttpStatus.FORBIDDEN.value()));
+            } else {
+                if (version == null) {
+                    version = nextChangeVersion(user.getId());
+                    taskEvents.versionChanged(user.getId(), version);
+                }
+                target.setChangeVersion(version);
+                target.setTitle(task.getTitle());
+                target.setDescription(TaskRules.markInternal(user, task.getDescription()));
+                target.setDone(task.isDone());
+                TaskDTO updated = toDTO(target);
+                taskEvents.saved(user.getId(), updated);
+                results.add(TaskBatchResult.of(HttpStatus.OK.value(), updated));
+            }
         }
+        return ResponseEntity.status(HttpStatus.MULTI_STATUS).body(results);
+    }
+
+    /**
+     * Deletes the user's tasks among {@code ids} with a single statement once ownership is known.
+     */
+    @Transactional
+    public ResponseEntity<List<TaskBatchResult>> deleteAll(List<Long> ids, Long ownerId) {
+        Set<Long> owned = new HashSet<>(taskRepo.findOwnedIds(ownerId, ids));
+        if (!owned.isEmpty()) {
+            long version = nextChangeVersion(ownerId);
+            taskRepo.deleteAllOwned(ownerId, owned, version, Instant.now());
+            taskEvents.versionChanged(ownerId, version);
+            owned.forEach(id -> taskEvents.deleted(ownerId, id));
+        }
+        Set<Long> existing = existingAmong(ids, owned);
+
+        List<TaskBatchResult> results = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            results.add(owned.contains(id)
+                    ? TaskBatchResult.deleted(id)
+                    : TaskBatchResult.failed(id, notOwnedStatus(id, existing)));
+        }
+        return ResponseEntity.status(HttpStatus.MULTI_STATUS).body(results);
+    }
+
+    /**
+     * Hard-deletes the tombstones of the tasks deleted before {@code deletedBefore}, first raising the purged
+     * version of their owners so that clients synchronised before them are told to start over.
+     *
+     * @return the number of tombstones purged
+     */
+    @Transactional
+    public int purgeTombstones(Instant deletedBefore) {
+        changeVersions.raisePurgedVersions(deletedBefore);
+        return taskRepo.purgeDeleted(deletedBefore);
+    }
+
+    /**
+     * Increments the owner's change version, which serialises the writers of the owner until commit.
+     * Users get their counter when they register; one is created here for those who do not have it.
+     * The caller publishes the version once a task is written at it, and gives it back with
+     * {@link ChangeVersionRepository#decrement} when its owner-scoped statement matches no row.
+     */
+    private long nextChangeVersion(Long ownerId) {
+        long version;
+        if (changeVersions.increment(ownerId) == 0) {
+            ChangeVersion created = new ChangeVersion(ownerId);
+            created.setVersion(1);
+            changeVersions.save(created);
+            version = 1;
+        } else {
+            version = changeVersions.findVersion(ownerId);
+        }
+        return version;
+    }
+
+    private static long orAnyVersion(Long unmodifiedSince) {
+        return unmodifiedSince == null ? Long.MAX_VALUE : unmodifiedSince;
+    }
+
+    /**
+     * Ids among {@code ids} that exist but are not in {@code owned}; only queried when something is missing.
+     */
+    private Set<Long> existingAmong(Iterable<Long> ids, Set<Long> owned) {
+        Set<Long> missing = new HashSet<>();
+        ids.forEach(id -> {
+            if (!owned.contains(id)) {
+                missing.add(id);
+            }
+        });
+        return missing.isEmpty() ? Set.of() : new HashSet<>(taskRepo.findExistingIds(missing));
+    }
+
+    private static int notOwnedStatus(Long id, Set<Long> existing) {
+        return TaskRules.notOwnedStatus(existing.contains(id)).value();
+    }
+
+    private static TaskDTO toDTO(Task task) {
+        return new TaskDTO(task.getId(), task.getTitle(), task.getDescription(), task.isDone());
+    }
+
+    /**
+     * 412 when the write was conditional and the task is the user's, otherwise as {@link #notOwned}.
+     */
+    private <T> ResponseEntity<T> notWritten(Long id, Long ownerId, Long unmodifiedSince) {
+        if (unmodifiedSince != null && taskRepo.findDTOByIdAndOwnerId(id, ownerId).isPresent()) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        }
+        return notOwned(id);
+    }
 
-        return userRoles.contains(Role.ROLE_ADMIN);
+    /**
+     * 403 when the task exists but belongs to someone else, 404 when there is no such task.
+     * Reached once the ownership-scoped statement has affected no row, or when a user may not set the task
+     * done: that is a 403 as well if the task exists, but a missing task is a 404 first, as before the
+     * ownership check moved into the statement.
+     */
+    private <T> ResponseEntity<T> notOwned(Long id) {
+        return ResponseEntity.status(TaskRules.notOwnedStatus(taskRepo.existsByIdAndDeletedFalse(id))).build();
     }
-}
\ No newline at end of file
+}
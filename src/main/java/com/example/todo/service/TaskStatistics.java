@@ -0,0 +1,103 @@
+package com.example.todo.service;
+
+import com.example.todo.dto.TaskDTO;
+import com.example.todo.dto.TaskStatsDTO;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Task counts per owner, maintained from the committed {@link TaskService} changes and rebuilt from the
+ * database at startup, so that reading them never scans the task table.
+ * <p>
+ * The counters are {@link LongAdder}s. Each owner also keeps the done/internal flags of every task, because an
+ * update is a single statement that does not read the previous row: the flags tell which counters it moves.
+ */
+public class TaskStatistics implements TaskChangeListener {
+
+    private static final int DONE = 1;
+    private static final int INTERNAL = 2;
+
+    private final Map<Long, OwnerStats> owners = new ConcurrentHashMap<>();
+
+    @Override
+    public void onTaskSaved(final Long ownerId, final TaskDTO task) {
+        owners.computeIfAbsent(ownerId, id -> new OwnerStats()).put(task.getId(), flags(task));
+    }
+
+    @Override
+    public void onTaskDeleted(final Long ownerId, final Long taskId) {
+        OwnerStats stats = owners.get(ownerId);
+        if (stats != null) {
+            stats.remove(taskId);
+        }
+    }
+
+    public TaskStatsDTO of(final Long ownerId) {
+        OwnerStats stats = owners.get(ownerId);
+        return stats == null ? new TaskStatsDTO() : stats.snapshot();
+    }
+
+    private static int flags(final TaskDTO task) {
+        int flags = task.isDone() ? DONE : 0;
+        if (TaskRules.isInternal(task.getDescription())) {
+            flags |= INTERNAL;
+        }
+        return flags;
+    }
+
+    private static final class OwnerStats {
+        private final Map<Long, Integer> flagsByTask = new ConcurrentHashMap<>();
+        private final LongAdder total = new LongAdder();
+        private final LongAdder done = new LongAdder();
+        private final LongAdder internal = new LongAdder();
+        private final LongAdder internalDone = new LongAdder();
+
+        void put(final Long taskId, final int flags) {
+            flagsByTask.compute(taskId, (id, previous) -> {
+                if (previous == null) {
+                    total.increment();
+                    count(flags, 1);
+                } else {
+                    count(previous, -1);
+                    count(flags, 1);
+                }
+                return flags;
+            });
+        }
+
+        void remove(final Long taskId) {
+            flagsByTask.computeIfPresent(taskId, (id, previous) -> {
+                count(previous, -1);
+                total.decrement();
+                return null;
+            });
+        }
+
+        private void count(final int flags, final int delta) {
+            if ((flags & DONE) != 0) {
+                done.add(delta);
+            }
+            if ((flags & INTERNAL) != 0) {
+                internal.add(delta);
+                if ((flags & DONE) != 0) {
+                    internalDone.add(delta);
+                }
+            }
+        }
+
+        /**
+         * Partial counts are read before the total: a task is counted in the total before its flags and
+         * uncounted after them, so concurrent writes can never make {@code open} negative.
+         */
+        TaskStatsDTO snapshot() {
+            long doneCount = done.sum();
+            long internalDoneCount = internalDone.sum();
+            long internalCount = internal.sum();
+            long totalCount = total.sum();
+            return new TaskStatsDTO(totalCount, doneCount, totalCount - doneCount, internalCount,
+                    internalDoneCount);
+        }
+    }
+}
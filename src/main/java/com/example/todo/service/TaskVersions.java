@@ -0,0 +1,48 @@
+package com.example.todo.service;
+
+import com.example.todo.dto.TaskDTO;
+import com.example.todo.entity.ChangeVersion;
+import com.example.todo.repository.ChangeVersionRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Committed change version of each user's tasks, held in memory so that conditional requests are settled
+ * without a query. A user's version is loaded on first use and then advanced as writes commit. It only ever
+ * moves forward, so a load racing with a commit cannot bring an older version back. The cache is bounded by
+ * user count: an evicted user's version is loaded again, and only committed versions are ever published.
+ */
+public class TaskVersions implements TaskChangeListener {
+
+    private final Cache<Long, Long> versions;
+    private final ChangeVersionRepository changeVersions;
+
+    public TaskVersions(final ChangeVersionRepository changeVersions, final long maximumSize) {
+        this.changeVersions = changeVersions;
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .build();
+    }
+
+    public long current(final Long ownerId) {
+        Long version = versions.getIfPresent(ownerId);
+        if (version == null) {
+            long loaded = changeVersions.findById(ownerId).map(ChangeVersion::getVersion).orElse(0L);
+            version = versions.asMap().merge(ownerId, loaded, Math::max);
+        }
+        return version;
+    }
+
+    @Override
+    public void onVersionChanged(final Long ownerId, final long version) {
+        versions.asMap().merge(ownerId, version, Math::max);
+    }
+
+    @Override
+    public void onTaskSaved(final Long ownerId, final TaskDTO task) {
+    }
+
+    @Override
+    public void onTaskDeleted(final Long ownerId, final Long taskId) {
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.todo.service;
+
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.ToIntFunction;
+
+/**
+ * Compacts the tombstones of deleted tasks once they are older than {@code retention}, with the
+ * {@code purgeTombstones} of the task service of the running stack. Clients that last
+ * synchronised before a compacted deletion get a 410 and start over, so the retention should cover the usual
+ * time between two synchronisations.
+ */
+@Slf4j
+@AllArgsConstructor
+public class TombstonePurger {
+    private final ToIntFunction<Instant> purgeDeletedBefore;
+    private final Duration retention;
+
+    @Scheduled(initialDelayString = "${todo.sync.purge-interval:PT1H}",
+            fixedDelayString = "${todo.sync.purge-interval:PT1H}")
+    public void purge() {
+        int purged = purgeDeletedBefore.applyAsInt(Instant.now().minus(retention));
+        if (purged > 0) {
+            log.info("Purged {} task tombstones", purged);
+        }
+    }
+}
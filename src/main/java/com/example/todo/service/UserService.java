@@ -1,48 +1,76 @@
 package com.example.todo.service;
 
+import com.example.todo.dto.UserCredentials;
+import com.example.todo.entity.ChangeVersion;
 import com.example.todo.entity.Role;
 import com.example.todo.entity.User;
+import com.example.todo.repository.ChangeVersionRepository;
 import com.example.todo.repository.UserRepository;
+import com.example.todo.security.AuthenticatedUser;
+import com.example.todo.security.TokenRevocations;
+import com.example.todo.security.UserDetailsCache;
 import lombok.AllArgsConstructor;
 
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashSet;
 import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 @AllArgsConstructor
 public class UserService implements UserDetailsService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final UserDetailsCache userDetailsCache;
+    private final TokenRevocations tokenRevocations;
+    private final ChangeVersionRepository changeVersionRepository;
 
     public void register(String username, String rawPassword) {
-        if (userRepository.findByUsername(username).isPresent()) {
+        if (userRepository.existsByUsername(username)) {
             throw new RuntimeException("User already exists");
         }
         User user = new User();
         user.setUsername(username);
         user.setPassword(passwordEncoder.encode(rawPassword));
         user.setRoles(Set.of(Role.ROLE_USER));
+        User saved = userRepository.save(user);
+        changeVersionRepository.save(new ChangeVersion(saved.getId()));
+        userDetailsCache.invalidate(username);
+    }
+
+    @Transactional
+    public void updateRoles(String username, Set<Role> roles) {
+        User user = userRepository.findByUsername(username).orElseThrow();
+        user.setRoles(new HashSet<>(roles));
         userRepository.save(user);
+        userDetailsCache.invalidate(username);
+        tokenRevocations.revokeAll(username);
     }
 
-    public Optional<User> findByUsername(String username) {
-        return userRepository.findByUsername(username);
+    /**
+     * Looks the user up for authentication purposes: the username, the user and its roles are read through
+     * the second-level cache, so a known user costs no query. Its tasks are not loaded.
+     */
+    @Transactional(readOnly = true)
+    public Optional<UserCredentials> findByUsername(String username) {
+        return userRepository.findByUsername(username).map(UserCredentials::of);
+    }
+
+    /**
+     * Returns an uninitialised reference to the user, for setting associations without loading it.
+     */
+    public User getReference(Long id) {
+        return userRepository.getById(id);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userRepository.findByUsername(username).orElseThrow();
-        return new org.springframework.security.core.userdetails.User(
-                user.getUsername(),
-                user.getPassword(),
-                user.getRoles().stream().map(r -> new SimpleGrantedAuthority(r.name())).collect(Collectors.toList())
-        );
+        return AuthenticatedUser.of(findByUsername(username).orElseThrow());
     }
-}
\ No newline at end of file
+}
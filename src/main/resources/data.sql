@@ -10,4 +10,7 @@ INSERT INTO user (id, username, password)
 VALUES (10, 'testadmin', '$2a$10$nvjOlrUKeAhrLVMahMffwuBmWwPgh58suytbe5S6n.XKR1hk2d3JK'); 
 
 -- Insertion du rôle admin
-INSERT INTO user_roles (user_id, roles) VALUES (10, 'ROLE_ADMIN');
\ No newline at end of file
+INSERT INTO user_roles (user_id, roles) VALUES (10, 'ROLE_ADMIN');
+
+-- Compteurs de versions des tâches, pour la synchronisation incrémentale
+INSERT INTO change_version (owner_id, version, purged_version) VALUES (9, 0, 0), (10, 0, 0);
\ No newline at end of file
@@ -10,11 +10,28 @@ CREATE TABLE user_roles (
                             FOREIGN KEY (user_id) REFERENCES user(id)
 );
 
+CREATE SEQUENCE task_seq START WITH 1 INCREMENT BY 50;
+
 CREATE TABLE task (
-                      id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                      id BIGINT PRIMARY KEY,
                       title VARCHAR(255),
                       description VARCHAR(255),
                       done BOOLEAN,
+                      change_version BIGINT,
+                      deleted BOOLEAN DEFAULT FALSE NOT NULL,
+                      deleted_at TIMESTAMP,
                       owner_id BIGINT,
                       FOREIGN KEY (owner_id) REFERENCES user(id)
-);
\ No newline at end of file
+);
+
+CREATE TABLE change_version (
+                      owner_id BIGINT PRIMARY KEY,
+                      version BIGINT NOT NULL,
+                      purged_version BIGINT NOT NULL,
+                      FOREIGN KEY (owner_id) REFERENCES user(id)
+);
+
+CREATE INDEX idx_task_owner_id ON task (owner_id, id);
+CREATE INDEX idx_task_owner_change_version ON task (owner_id, change_version);
+CREATE INDEX idx_task_deleted_at ON task (deleted, deleted_at);
+CREATE INDEX idx_user_roles_user_id ON user_roles (user_id);
@@ -1,6 +1,8 @@
 package com.example.todo.controller;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -23,9 +25,12 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import com.example.todo.dto.AuthRequest;
 import com.example.todo.dto.RegisterRequest;
 import com.example.todo.security.JwtUtil;
+import com.example.todo.security.PasswordHashingRejectedException;
 import com.example.todo.service.UserService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 import java.util.ArrayList;
 
 @ExtendWith(MockitoExtension.class)
@@ -43,6 +48,8 @@ class AuthControllerTest {
     @Mock
     private Authentication authentication;
 
+    private SimpleMeterRegistry meterRegistry;
+
     private AuthController authController;
 
     private MockMvc mockMvc;
@@ -50,7 +57,9 @@ class AuthControllerTest {
 
     @BeforeEach
     void setUp() {
-        this.authController = new AuthController(this.userService, this.jwtUtil, this.authenticationManager);
+        this.meterRegistry = new SimpleMeterRegistry();
+        this.authController = new AuthController(this.userService, this.jwtUtil, this.authenticationManager,
+                this.meterRegistry);
         this.mockMvc = MockMvcBuilders.standaloneSetup(this.authController).build();
         this.objectMapper = new ObjectMapper();
     }
@@ -92,5 +101,39 @@ class AuthControllerTest {
 
         verify(this.authenticationManager).authenticate(any(UsernamePasswordAuthenticationToken.class));
         verify(this.jwtUtil).generateToken(userDetails);
+        assertEquals(1, this.meterRegistry.get("todo.auth.login").tag("outcome", "success").timer().count());
+    }
+
+    @Test
+    void shouldReturnTooManyRequests_whenRegisteringUser_givenPasswordHashingSaturated() throws Exception {
+        RegisterRequest registerRequest = new RegisterRequest();
+        registerRequest.setUsername("testUser");
+        registerRequest.setPassword("network");
+
+        doThrow(new PasswordHashingRejectedException(2)).when(this.userService).register("testUser", "network");
+
+        this.mockMvc.perform(post("/auth/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(this.objectMapper.writeValueAsString(registerRequest)))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "2"));
+    }
+
+    @Test
+    void shouldReturnTooManyRequests_whenLoggingIn_givenPasswordHashingSaturated() throws Exception {
+        AuthRequest authRequest = new AuthRequest();
+        authRequest.setUsername("testUser");
+        authRequest.setPassword("network");
+
+        when(this.authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
+                .thenThrow(new PasswordHashingRejectedException(1));
+
+        this.mockMvc.perform(post("/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(this.objectMapper.writeValueAsString(authRequest)))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "1"));
+
+        assertEquals(1, this.meterRegistry.get("todo.auth.login").tag("outcome", "rejected").timer().count());
     }
 }
@@ -0,0 +1,101 @@
+package com.example.todo.controller;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.example.todo.security.TokenRevocations;
+
+/**
+ * The "reactive" profile end to end on Netty: login, the JWT WebFilter and the task listing, against the
+ * users and tasks of data.sql.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("reactive")
+class ReactiveAuthIntegrationTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private TokenRevocations tokenRevocations;
+
+    @Test
+    void shouldReturnToken_whenLogin_givenValidCredentials() {
+        assertNotNull(login("testadmin", "test123"));
+    }
+
+    @Test
+    void shouldReturnForbidden_whenLogin_givenWrongPassword() {
+        webTestClient.post().uri("/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(credentials("testadmin", "wrong"))
+                .exchange()
+                .expectStatus().isForbidden();
+    }
+
+    @Test
+    void shouldListTasks_whenGetTasks_givenToken() {
+        String token = login("testuser", "test123");
+
+        webTestClient.get().uri("/tasks")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().exists(HttpHeaders.ETAG)
+                .expectBody().jsonPath("$").isArray();
+    }
+
+    @Test
+    void shouldReturnForbidden_whenGetTasks_givenNoOrInvalidToken() {
+        webTestClient.get().uri("/tasks")
+                .exchange()
+                .expectStatus().isForbidden();
+        webTestClient.get().uri("/tasks")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer not.a.token")
+                .exchange()
+                .expectStatus().isForbidden();
+    }
+
+    @Test
+    void shouldReturnForbidden_whenGetTasks_givenRevokedToken() throws InterruptedException {
+        String token = login("testuser", "test123");
+        tokenRevocations.revokeAll("testuser");
+
+        webTestClient.get().uri("/tasks")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .exchange()
+                .expectStatus().isForbidden();
+        // Tokens issued in the second of the revocation are rejected too.
+        Thread.sleep(1000 - System.currentTimeMillis() % 1000);
+        webTestClient.get().uri("/tasks")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + login("testuser", "test123"))
+                .exchange()
+                .expectStatus().isOk();
+    }
+
+    private String login(String username, String password) {
+        Map<?, ?> response = webTestClient.post().uri("/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(credentials(username, password))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Map.class)
+                .returnResult()
+                .getResponseBody();
+        assertNotNull(response);
+        return (String) response.get("token");
+    }
+
+    private static Map<String, String> credentials(String username, String password) {
+        return Map.of("username", username, "password", password);
+    }
+}
@@ -1,18 +1,33 @@
 package com.example.todo.controller;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.hamcrest.Matchers.containsString;
 
-import java.security.Principal;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Consumer;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -22,15 +37,27 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import com.example.todo.dto.TaskDTO;
+import com.example.todo.dto.TaskPatchDTO;
+import com.example.todo.dto.TaskStatsDTO;
 import com.example.todo.entity.Role;
 import com.example.todo.entity.Task;
 import com.example.todo.entity.User;
 import com.example.todo.mapper.TaskMapper;
+import com.example.todo.security.AuthenticatedUser;
+import com.example.todo.service.TaskEventBus;
+import com.example.todo.service.TaskListCache;
+import com.example.todo.service.TaskSearchIndex;
 import com.example.todo.service.TaskService;
+import com.example.todo.service.TaskStatistics;
+import com.example.todo.service.TaskVersions;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 @ExtendWith(MockitoExtension.class)
@@ -40,7 +67,17 @@ class TaskControllerTest {
         private TaskService taskService;
 
         @Mock
-        private Principal principal;
+        private TaskSearchIndex taskSearchIndex;
+
+        @Mock
+        private TaskStatistics taskStatistics;
+
+        @Mock
+        private TaskVersions taskVersions;
+
+        private TaskEventBus taskEventBus;
+
+        private Authentication principal;
 
         private TaskController taskController;
         private TaskMapper taskMapper;
@@ -49,14 +86,18 @@ class TaskControllerTest {
         private ObjectMapper objectMapper;
 
         private User mockUser;
+        private AuthenticatedUser authenticatedUser;
         private Task mockTask;
 
         @BeforeEach
         void setUp() {
                 this.taskMapper = new TaskMapper();
-                this.taskController = new TaskController(this.taskService, this.taskMapper);
-                this.mockMvc = MockMvcBuilders.standaloneSetup(this.taskController).build();
                 this.objectMapper = new ObjectMapper();
+                this.taskEventBus = new TaskEventBus(8, 1, Duration.ofMinutes(1));
+                this.taskController = new TaskController(this.taskService, this.taskMapper, this.objectMapper,
+                                this.taskSearchIndex, this.taskStatistics, this.taskEventBus, this.taskVersions,
+                                new TaskListCache(1 << 20));
+                this.mockMvc = MockMvcBuilders.standaloneSetup(this.taskController).build();
 
                 this.mockUser = new User();
                 this.mockUser.setId(1L);
@@ -71,13 +112,16 @@ class TaskControllerTest {
                 this.mockTask.setDone(false);
                 this.mockTask.setOwner(this.mockUser);
 
-                when(this.principal.getName()).thenReturn("testUser");
+                this.authenticatedUser = new AuthenticatedUser(1L, "testUser", "encodedPassword",
+                                List.of(new SimpleGrantedAuthority("ROLE_USER")));
+                this.principal = new UsernamePasswordAuthenticationToken(this.authenticatedUser, null,
+                                this.authenticatedUser.getAuthorities());
         }
 
         @Test
         void shouldReturnUserTasks_whenListingTasks_givenAuthenticatedUser() throws Exception {
-                List<Task> tasks = Arrays.asList(this.mockTask);
-                when(this.taskService.getTasksForUser("testUser")).thenReturn(tasks);
+                List<TaskDTO> tasks = Arrays.asList(this.taskMapper.toDTO(this.mockTask));
+                when(this.taskService.getTasksForUser(1L)).thenReturn(tasks);
 
                 this.mockMvc.perform(get("/tasks")
                                 .principal(this.principal))
@@ -89,6 +133,109 @@ class TaskControllerTest {
                                 .andExpect(jsonPath("$[0].done").value(false));
         }
 
+        @Test
+        void shouldReturnFirstPageWithNextLink_whenListingTasks_givenLimit() throws Exception {
+                TaskDTO secondTask = new TaskDTO(2L, "Titre 2", null, false);
+                when(this.taskService.getTasksForUser(1L, 0L, 2))
+                                .thenReturn(Arrays.asList(this.taskMapper.toDTO(this.mockTask), secondTask));
+
+                this.mockMvc.perform(get("/tasks")
+                                .param("limit", "1")
+                                .principal(this.principal))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.length()").value(1))
+                                .andExpect(jsonPath("$[0].id").value(1))
+                                .andExpect(header().string("Link", containsString("cursor=" + TaskCursor.encode(1L))))
+                                .andExpect(header().string("Link", containsString("rel=\"next\"")));
+        }
+
+        @Test
+        void shouldSeekPastCursorWithoutNextLink_whenListingTasks_givenLastPageCursor() throws Exception {
+                when(this.taskService.getTasksForUser(1L, 1L, 51)).thenReturn(List.of());
+
+                this.mockMvc.perform(get("/tasks")
+                                .param("cursor", TaskCursor.encode(1L))
+                                .principal(this.principal))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.length()").value(0))
+                                .andExpect(header().doesNotExist("Link"));
+
+                verify(this.taskService).getTasksForUser(1L, 1L, 51);
+        }
+
+        @Test
+        void shouldReturnBadRequest_whenListingTasks_givenMalformedCursor() throws Exception {
+                this.mockMvc.perform(get("/tasks")
+                                .param("cursor", "not-a-cursor")
+                                .principal(this.principal))
+                                .andExpect(status().isBadRequest());
+        }
+
+        @Test
+        void shouldReturnRankedHitsWithNextLink_whenSearchingTasks_givenLimit() throws Exception {
+                TaskSearchIndex.Hit first = new TaskSearchIndex.Hit(this.taskMapper.toDTO(this.mockTask), 6);
+                TaskSearchIndex.Hit second = new TaskSearchIndex.Hit(new TaskDTO(2L, "Titre 2", null, false), 3);
+                when(this.taskSearchIndex.search(1L, "tit", 2, null)).thenReturn(List.of(first, second));
+
+                this.mockMvc.perform(get("/tasks/search")
+                                .param("q", "tit")
+                                .param("limit", "1")
+                                .principal(this.principal))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.length()").value(1))
+                                .andExpect(jsonPath("$[0].title").value("Titre"))
+                                .andExpect(header().string("Link",
+                                                containsString("cursor=" + SearchCursor.encode(first.position()))));
+        }
+
+        @Test
+        void shouldReturnCounters_whenGettingStats() throws Exception {
+                when(this.taskStatistics.of(1L)).thenReturn(new TaskStatsDTO(3, 1, 2, 1, 0));
+
+                this.mockMvc.perform(get("/tasks/stats")
+                                .principal(this.principal))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.total").value(3))
+                                .andExpect(jsonPath("$.done").value(1))
+                                .andExpect(jsonPath("$.open").value(2))
+                                .andExpect(jsonPath("$.internal").value(1));
+                verifyNoInteractions(this.taskService);
+        }
+
+        @Test
+        void shouldSubscribeToOwnTaskEvents_whenOpeningEventStream() throws Exception {
+                this.mockMvc.perform(get("/tasks/events")
+                                .accept(MediaType.TEXT_EVENT_STREAM)
+                                .principal(this.principal))
+                                .andExpect(request().asyncStarted())
+                                .andExpect(content().string(containsString(":subscribed")));
+                assertEquals(1, this.taskEventBus.subscriberCount());
+        }
+
+        @Test
+        void shouldStreamOneJsonLinePerTask_whenExportingTasks_givenNdjsonAccepted() throws Exception {
+                TaskDTO secondTask = new TaskDTO(2L, "Titre 2", null, false);
+                doAnswer(invocation -> {
+                        Consumer<TaskDTO> action = invocation.getArgument(1);
+                        action.accept(this.taskMapper.toDTO(this.mockTask));
+                        action.accept(secondTask);
+                        return null;
+                }).when(this.taskService).forEachTaskOfUser(eq(1L), any());
+
+                MvcResult result = this.mockMvc.perform(get("/tasks")
+                                .accept("application/x-ndjson")
+                                .principal(this.principal))
+                                .andExpect(request().asyncStarted())
+                                .andReturn();
+
+                this.mockMvc.perform(asyncDispatch(result))
+                                .andExpect(status().isOk())
+                                .andExpect(content().contentType("application/x-ndjson"))
+                                .andExpect(content().string(
+                                                "{\"id\":1,\"title\":\"Titre\",\"description\":\"Description\",\"done\":false}\n"
+                                                + "{\"id\":2,\"title\":\"Titre 2\",\"description\":null,\"done\":false}\n"));
+        }
+
         @Test
         void shouldReturnCreatedTask_whenCreatingTask_givenValidTaskData() throws Exception {
                 TaskDTO taskToCreate = new TaskDTO();
@@ -96,7 +243,7 @@ class TaskControllerTest {
                 taskToCreate.setDescription("Description");
                 taskToCreate.setDone(false);
 
-                when(this.taskService.create(any(Task.class), eq("testUser")))
+                when(this.taskService.create(any(Task.class), eq(this.authenticatedUser)))
                                 .thenReturn(new ResponseEntity<>(this.mockTask, HttpStatus.CREATED));
 
                 this.mockMvc.perform(post("/tasks")
@@ -122,7 +269,7 @@ class TaskControllerTest {
                 updatedTask.setDescription("Description modif");
                 updatedTask.setDone(false);
 
-                when(this.taskService.update(eq(1L), any(Task.class), eq("testUser")))
+                when(this.taskService.update(eq(1L), any(Task.class), eq(this.authenticatedUser), isNull()))
                                 .thenReturn(ResponseEntity.ok(updatedTask));
 
                 this.mockMvc.perform(put("/tasks/1")
@@ -134,13 +281,119 @@ class TaskControllerTest {
                                 .andExpect(jsonPath("$.description").value("Description modif"));
         }
 
+        @Test
+        void shouldPassOnlySentFields_whenPatchingTask_givenMergePatchWithDoneOnly() throws Exception {
+                when(this.taskService.patch(eq(1L),
+                                argThat((TaskPatchDTO p) -> p.hasDone() && !p.hasTitle() && !p.hasDescription()),
+                                eq(this.authenticatedUser)))
+                                .thenReturn(ResponseEntity.ok(new TaskDTO(1L, "Titre", "Description", true)));
+
+                this.mockMvc.perform(patch("/tasks/1")
+                                .principal(this.principal)
+                                .contentType("application/merge-patch+json")
+                                .content("{\"done\":true}"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.title").value("Titre"))
+                                .andExpect(jsonPath("$.done").value(true));
+        }
+
+        @Test
+        void shouldReturnBadRequest_whenPatchingTask_givenNullDone() throws Exception {
+                this.mockMvc.perform(patch("/tasks/1")
+                                .principal(this.principal)
+                                .contentType("application/merge-patch+json")
+                                .content("{\"done\":null}"))
+                                .andExpect(status().isBadRequest());
+
+                verifyNoInteractions(this.taskService);
+        }
+
+        @Test
+        void shouldReturnBadRequest_whenCreatingBatch_givenMoreThanMaximumItems() throws Exception {
+                List<TaskDTO> tasks = new ArrayList<>();
+                for (int i = 0; i < 1001; i++) {
+                        tasks.add(new TaskDTO(null, "Titre " + i, null, false));
+                }
+
+                this.mockMvc.perform(post("/tasks/batch")
+                                .principal(this.principal)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(this.objectMapper.writeValueAsString(tasks)))
+                                .andExpect(status().isBadRequest());
+
+                verifyNoInteractions(this.taskService);
+        }
+
         @Test
         void shouldReturnNoContent_whenDeletingTask_givenValidTaskId() throws Exception {
-                when(this.taskService.delete(1L, "testUser"))
+                when(this.taskService.delete(1L, 1L, null))
                                 .thenReturn(new ResponseEntity<>(HttpStatus.NO_CONTENT));
 
                 this.mockMvc.perform(delete("/tasks/1")
                                 .principal(this.principal))
                                 .andExpect(status().isNoContent());
         }
+
+        @Test
+        void shouldReturnNotFound_whenDeletingTask_givenUnknownTaskId() throws Exception {
+                when(this.taskService.delete(99L, 1L, null))
+                                .thenReturn(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+
+                this.mockMvc.perform(delete("/tasks/99")
+                                .principal(this.principal))
+                                .andExpect(status().isNotFound());
+        }
+
+        @Test
+        void shouldReturnNotModifiedWithoutQuery_whenListingTasks_givenIfNoneMatchOfCurrentVersion() throws Exception {
+                when(this.taskVersions.current(1L)).thenReturn(42L);
+
+                this.mockMvc.perform(get("/tasks")
+                                .principal(this.principal)
+                                .header("If-None-Match", "\"42\""))
+                                .andExpect(status().isNotModified())
+                                .andExpect(header().string("ETag", "\"42\""));
+
+                verifyNoInteractions(this.taskService);
+        }
+
+        @Test
+        void shouldListTasksWithETag_whenListingTasks_givenIfNoneMatchOfOlderVersion() throws Exception {
+                when(this.taskVersions.current(1L)).thenReturn(43L);
+                when(this.taskService.getTasksForUser(1L)).thenReturn(List.of(this.taskMapper.toDTO(this.mockTask)));
+
+                this.mockMvc.perform(get("/tasks")
+                                .principal(this.principal)
+                                .header("If-None-Match", "\"42\""))
+                                .andExpect(status().isOk())
+                                .andExpect(header().string("ETag", "\"43\""))
+                                .andExpect(jsonPath("$.length()").value(1));
+        }
+
+        @Test
+        void shouldPassIfMatchVersion_whenDeletingTask_givenIfMatchHeader() throws Exception {
+                when(this.taskService.delete(1L, 1L, 7L))
+                                .thenReturn(new ResponseEntity<>(HttpStatus.PRECONDITION_FAILED));
+
+                this.mockMvc.perform(delete("/tasks/1")
+                                .principal(this.principal)
+                                .header("If-Match", "W/\"9\", \"7\""))
+                                .andExpect(status().isPreconditionFailed());
+        }
+
+        @Test
+        void shouldServeCachedJson_whenListingTasksAgain_givenSameVersion() throws Exception {
+                when(this.taskVersions.current(1L)).thenReturn(5L);
+                when(this.taskService.getTasksForUser(1L)).thenReturn(List.of(this.taskMapper.toDTO(this.mockTask)));
+
+                for (int i = 0; i < 2; i++) {
+                        this.mockMvc.perform(get("/tasks")
+                                        .principal(this.principal))
+                                        .andExpect(status().isOk())
+                                        .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                                        .andExpect(jsonPath("$[0].title").value("Titre"));
+                }
+
+                verify(this.taskService, times(1)).getTasksForUser(1L);
+        }
 }
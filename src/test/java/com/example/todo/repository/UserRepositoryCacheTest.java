@@ -0,0 +1,97 @@
+package com.example.todo.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Set;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.todo.dto.UserCredentials;
+import com.example.todo.entity.Role;
+import com.example.todo.entity.User;
+
+/**
+ * Each lookup runs in a transaction of its own, as it would in a request: a read-write region only serves
+ * entries cached before the reading transaction began.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserRepositoryCacheTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactions;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        this.transactions = new TransactionTemplate(this.transactionManager);
+        this.statistics = this.entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        this.entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    void shouldIssueNoSql_whenFindingUserByIdAgain_givenUserAndRolesCached() {
+        assertEquals(Set.of(Role.ROLE_USER), rolesOfUser(9L));
+        this.statistics.clear();
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(Set.of(Role.ROLE_USER), rolesOfUser(9L));
+        }
+
+        assertEquals(0, this.statistics.getPrepareStatementCount());
+        assertEquals(6, this.statistics.getSecondLevelCacheHitCount());
+    }
+
+    @Test
+    void shouldIssueNoSql_whenFindingUserByUsernameAgain_givenNaturalIdCached() {
+        this.transactions.execute(status -> this.userRepository.findByUsername("testadmin").orElseThrow());
+        this.statistics.clear();
+
+        User user = this.transactions.execute(status -> this.userRepository.findByUsername("testadmin").orElseThrow());
+
+        assertEquals(10L, user.getId());
+        assertEquals(0, this.statistics.getPrepareStatementCount());
+        assertEquals(1, this.statistics.getNaturalIdCacheHitCount());
+    }
+
+    @Test
+    void shouldIssueNoSql_whenLoadingCredentialsAgain_givenUserAndRolesCached() {
+        credentialsOf("testuser");
+        this.statistics.clear();
+
+        UserCredentials credentials = credentialsOf("testuser");
+
+        assertEquals(9L, credentials.getId());
+        assertEquals(Set.of(Role.ROLE_USER), credentials.getRoles());
+        assertEquals(0, this.statistics.getPrepareStatementCount());
+    }
+
+    private UserCredentials credentialsOf(String username) {
+        return this.transactions.execute(status ->
+                UserCredentials.of(this.userRepository.findByUsername(username).orElseThrow()));
+    }
+
+    private Set<Role> rolesOfUser(Long id) {
+        return this.transactions.execute(status ->
+                Set.copyOf(this.userRepository.findById(id).orElseThrow().getRoles()));
+    }
+}
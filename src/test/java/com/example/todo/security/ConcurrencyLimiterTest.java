@@ -0,0 +1,217 @@
+package com.example.todo.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.servlet.FilterChain;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class ConcurrencyLimiterTest {
+
+    private static final long MILLIS = 1_000_000L;
+
+    @Test
+    void shouldReject_whenAcquiring_givenLimitInFlight() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(2, 1, 10, 2.0);
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        assertEquals(1, limiter.getRejectedCount());
+
+        limiter.release(MILLIS);
+
+        assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    void shouldRaiseLimit_whenReleasing_givenSteadyLatencyAtFullUse() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(10, 4, 100, 2.0);
+
+        saturate(limiter, 200, 10 * MILLIS);
+
+        assertEquals(100, limiter.getLimit());
+    }
+
+    @Test
+    void shouldLowerLimit_whenReleasing_givenLatencyRising() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(50, 4, 50, 2.0);
+        saturate(limiter, 100, 10 * MILLIS);
+
+        saturate(limiter, 100, 100 * MILLIS);
+
+        assertEquals(4, limiter.getLimit());
+    }
+
+    @Test
+    void shouldKeepLimit_whenReleasing_givenFewRequestsInFlight() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(20, 4, 100, 2.0);
+
+        for (int i = 0; i < 100; i++) {
+            limiter.tryAcquire();
+            limiter.release(10 * MILLIS);
+        }
+
+        assertEquals(20, limiter.getLimit());
+    }
+
+    @Test
+    void shouldAnswerServiceUnavailable_whenFiltering_givenReadPartitionFull() throws Exception {
+        ConcurrencyLimiter reads = new ConcurrencyLimiter(1, 1, 1, 2.0);
+        ConcurrencyLimiter writes = new ConcurrencyLimiter(1, 1, 1, 2.0);
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(reads, writes,
+                new ConcurrencyLimiter(1, 1, 1, 2.0));
+        reads.tryAcquire();
+
+        MockHttpServletResponse read = filter(filter, "GET", "/tasks");
+        MockHttpServletResponse write = filter(filter, "POST", "/tasks");
+        MockHttpServletResponse events = filter(filter, "GET", "/tasks/events");
+
+        assertEquals(503, read.getStatus());
+        assertEquals("1", read.getHeader("Retry-After"));
+        assertEquals(200, write.getStatus());
+        assertEquals(0, writes.getInFlight());
+        assertEquals(200, events.getStatus());
+    }
+
+    @Test
+    void shouldReleaseWithoutSample_whenFiltering_givenLongAsyncRequest() throws Exception {
+        ConcurrencyLimiter reads = new ConcurrencyLimiter(10, 4, 10, 2.0);
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(reads, reads, reads);
+        saturate(reads, 50, MILLIS);
+        for (int i = 0; i < 9; i++) {
+            reads.tryAcquire();
+        }
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/tasks");
+        request.setServletPath("/tasks");
+        request.setAsyncSupported(true);
+
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> req.startAsync());
+        assertEquals(10, reads.getInFlight());
+        Thread.sleep(50);
+        request.getAsyncContext().complete();
+        assertEquals(9, reads.getInFlight());
+        for (int i = 0; i < 9; i++) {
+            reads.release(MILLIS);
+        }
+
+        assertEquals(10, reads.getLimit());
+    }
+
+    /**
+     * Overload through the filter: 128 clients in a closed loop, backing off briefly on 503, against a server
+     * that works on 8 requests at once, for 2 ms each, and queues the others. The limit settles where the
+     * queueing stays within the tolerance, a few dozen requests on a loaded machine, the clients beyond it get
+     * 503 at once, and fewer than half of them ever reach the server together.
+     */
+    @Test
+    void shouldShedExcess_whenFiltering_givenMoreClientsThanServerCapacity() throws Exception {
+        ConcurrencyLimiter reads = new ConcurrencyLimiter(20, 4, 200, 2.0);
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(reads, reads, reads);
+        Semaphore workers = new Semaphore(8);
+        AtomicInteger inServer = new AtomicInteger();
+        AtomicInteger maxInServer = new AtomicInteger();
+        AtomicInteger served = new AtomicInteger();
+        AtomicInteger shed = new AtomicInteger();
+        FilterChain server = (request, response) -> {
+            maxInServer.accumulateAndGet(inServer.incrementAndGet(), Math::max);
+            try {
+                workers.acquire();
+                try {
+                    Thread.sleep(2);
+                } finally {
+                    workers.release();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inServer.decrementAndGet();
+            }
+        };
+
+        long end = System.nanoTime() + 1_500 * MILLIS;
+        ExecutorService clients = Executors.newFixedThreadPool(128);
+        for (int i = 0; i < 128; i++) {
+            clients.execute(() -> {
+                while (System.nanoTime() < end) {
+                    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/tasks");
+                    request.setServletPath("/tasks");
+                    MockHttpServletResponse response = new MockHttpServletResponse();
+                    try {
+                        filter.doFilter(request, response, server);
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                    if (response.getStatus() == 503) {
+                        shed.incrementAndGet();
+                        backOff();
+                    } else {
+                        served.incrementAndGet();
+                    }
+                }
+            });
+        }
+        clients.shutdown();
+        assertTrue(clients.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertTrue(served.get() > 0);
+        assertTrue(shed.get() > 0);
+        assertTrue(reads.getLimit() < 64, "limit " + reads.getLimit());
+        assertTrue(maxInServer.get() < 64, "in server " + maxInServer.get());
+        assertEquals(0, reads.getInFlight());
+    }
+
+    /**
+     * Waits before retrying as a client honouring {@code Retry-After} would, scaled down to the test.
+     */
+    private static void backOff() {
+        try {
+            Thread.sleep(5);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Keeps the limiter full for {@code rounds} rounds of requests that all take {@code rttNanos}.
+     */
+    private static void saturate(ConcurrencyLimiter limiter, int rounds, long rttNanos) {
+        for (int round = 0; round < rounds; round++) {
+            int acquired = 0;
+            while (limiter.tryAcquire()) {
+                acquired++;
+            }
+            for (int i = 0; i < acquired; i++) {
+                limiter.release(rttNanos);
+            }
+        }
+    }
+
+    private static MockHttpServletResponse filter(ConcurrencyLimitFilter filter, String method, String path)
+            throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setServletPath(path);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, response, chain);
+        if (response.getStatus() == 503) {
+            assertNull(chain.getRequest());
+        } else {
+            assertNotNull(chain.getRequest());
+        }
+        return response;
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.todo.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SignatureException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class JwtUtilTest {
+
+    private JwtUtil jwtUtil;
+
+    private AuthenticatedUser admin;
+
+    @BeforeEach
+    void setUp() {
+        this.jwtUtil = new JwtUtil(100, new SimpleMeterRegistry());
+        this.admin = new AuthenticatedUser(10L, "testAdmin", "encodedPassword",
+                List.of(new SimpleGrantedAuthority("ROLE_ADMIN")));
+    }
+
+    @Test
+    void shouldReturnClaims_whenParsingToken_givenTokenIssuedByGenerateToken() {
+        String token = this.jwtUtil.generateToken(this.admin);
+
+        TokenClaims claims = this.jwtUtil.parseToken(token);
+
+        assertEquals("testAdmin", claims.getUsername());
+        assertEquals(10L, claims.getUserId());
+        assertEquals(List.of("ROLE_ADMIN"), claims.getRoles());
+        assertEquals(Jwts.parser().setSigningKey("secret123").parseClaimsJws(token).getBody().getExpiration().getTime() / 1000,
+                claims.getExpiresAt());
+    }
+
+    @Test
+    void shouldServeRepeatVerificationsFromCache_whenParsingSameTokenTwice() {
+        String token = this.jwtUtil.generateToken(this.admin);
+
+        this.jwtUtil.parseToken(token);
+        this.jwtUtil.parseToken(token);
+
+        assertEquals(1, this.jwtUtil.getVerifier().stats().hitCount());
+    }
+
+    @Test
+    void shouldThrowSignatureException_whenParsingToken_givenTamperedPayload() {
+        String token = this.jwtUtil.generateToken(this.admin);
+        String[] parts = token.split("\\.");
+        String forged = Jwts.builder().setSubject("someoneElse").signWith(SignatureAlgorithm.HS256, "b3RoZXI=")
+                .compact().split("\\.")[1];
+
+        assertThrows(SignatureException.class, () -> this.jwtUtil.parseToken(parts[0] + "." + forged + "." + parts[2]));
+    }
+
+    @Test
+    void shouldThrowExpiredJwtException_whenParsingToken_givenExpiredToken() {
+        String token = Jwts.builder()
+                .setSubject("testAdmin")
+                .setIssuedAt(new Date(System.currentTimeMillis() - 7200000))
+                .setExpiration(new Date(System.currentTimeMillis() - 3600000))
+                .signWith(SignatureAlgorithm.HS256, "secret123")
+                .compact();
+
+        assertThrows(ExpiredJwtException.class, () -> this.jwtUtil.parseToken(token));
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.todo.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+class RateLimitFilterTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    private RateLimiter rateLimiter;
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        this.rateLimiter = new RateLimiter(new RateLimiter.Limit(2, 1), new RateLimiter.Limit(4, 1),
+                new RateLimiter.Limit(1, 1));
+        this.filter = new RateLimitFilter(this.rateLimiter);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void shouldRejectToken_whenAcquiring_givenBucketEmptied() {
+        RateLimiter.Bucket bucket = new RateLimiter.Bucket(new RateLimiter.Limit(2, 1), 0L);
+
+        assertEquals(SECOND, bucket.tryAcquire(0L));
+        assertEquals(2 * SECOND, bucket.tryAcquire(0L));
+        assertEquals(-SECOND, bucket.tryAcquire(0L));
+    }
+
+    @Test
+    void shouldGrantToken_whenAcquiring_givenBucketRefilled() {
+        RateLimiter.Bucket bucket = new RateLimiter.Bucket(new RateLimiter.Limit(2, 1), 0L);
+        bucket.tryAcquire(0L);
+        bucket.tryAcquire(0L);
+
+        long untilFull = bucket.tryAcquire(SECOND);
+
+        assertEquals(2 * SECOND, untilFull);
+        assertEquals(0, bucket.remaining(untilFull));
+    }
+
+    @Test
+    void shouldAnswerTooManyRequests_whenFiltering_givenUserOverLimit() throws Exception {
+        authenticate("testUser", "ROLE_USER");
+
+        MockHttpServletResponse first = filter("/tasks");
+        MockHttpServletResponse second = filter("/tasks");
+        MockHttpServletResponse third = filter("/tasks");
+
+        assertEquals(200, first.getStatus());
+        assertEquals("2", first.getHeader(RateLimitFilter.LIMIT));
+        assertEquals("1", first.getHeader(RateLimitFilter.REMAINING));
+        assertEquals("0", second.getHeader(RateLimitFilter.REMAINING));
+        assertEquals(429, third.getStatus());
+        assertEquals("1", third.getHeader("Retry-After"));
+    }
+
+    @Test
+    void shouldApplyAdminLimit_whenFiltering_givenAdmin() throws Exception {
+        authenticate("testAdmin", "ROLE_ADMIN");
+
+        MockHttpServletResponse response = filter("/tasks");
+
+        assertEquals("4", response.getHeader(RateLimitFilter.LIMIT));
+    }
+
+    @Test
+    void shouldLimitPerAddress_whenFiltering_givenAuthEndpoint() throws Exception {
+        assertEquals(200, filter("/auth/login").getStatus());
+        assertEquals(429, filter("/auth/login").getStatus());
+    }
+
+    @Test
+    void shouldNotLimit_whenFiltering_givenUnauthenticatedTaskRequest() throws Exception {
+        MockHttpServletResponse response = filter("/tasks");
+
+        assertEquals(200, response.getStatus());
+        assertNull(response.getHeader(RateLimitFilter.LIMIT));
+    }
+
+    private MockHttpServletResponse filter(String path) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setServletPath(path);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        this.filter.doFilter(request, response, chain);
+        assertTrue(response.getStatus() == 429 ? chain.getRequest() == null : chain.getRequest() != null);
+        return response;
+    }
+
+    private static void authenticate(String username, String role) {
+        AuthenticatedUser user = new AuthenticatedUser(1L, username, "", List.of(new SimpleGrantedAuthority(role)));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.todo.security;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class TokenRevocationsTest {
+
+    private final TokenRevocations tokenRevocations = new TokenRevocations();
+
+    @Test
+    void shouldRejectToken_whenChecking_givenIssuedInSecondOfRevocation() {
+        long now = System.currentTimeMillis() / 1000;
+        TokenClaims issuedBefore = claims("testUser", now);
+
+        tokenRevocations.revokeAll("testUser");
+
+        assertTrue(tokenRevocations.isRevoked(issuedBefore));
+        assertTrue(tokenRevocations.isRevoked(claims("testUser", now - 60)));
+    }
+
+    @Test
+    void shouldAcceptToken_whenChecking_givenIssuedAfterRevocationOrOtherUser() {
+        long now = System.currentTimeMillis() / 1000;
+
+        tokenRevocations.revokeAll("testUser");
+
+        assertFalse(tokenRevocations.isRevoked(claims("testUser", now + 2)));
+        assertFalse(tokenRevocations.isRevoked(claims("otherUser", now)));
+    }
+
+    private static TokenClaims claims(String username, long issuedAt) {
+        return new TokenClaims(username, 1L, List.of("ROLE_USER"), issuedAt, issuedAt + 3600);
+    }
+}
@@ -0,0 +1,195 @@
+package com.example.todo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import com.example.todo.dto.TaskChangesDTO;
+import com.example.todo.dto.TaskDTO;
+import com.example.todo.dto.TaskPatchDTO;
+import com.example.todo.entity.ChangeVersion;
+import com.example.todo.entity.Task;
+import com.example.todo.repository.ReactiveChangeVersionRepository;
+import com.example.todo.repository.ReactiveTaskRepository;
+import com.example.todo.security.AuthenticatedUser;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveTaskServiceTest {
+
+    @Mock
+    private ReactiveTaskRepository taskRepository;
+
+    @Mock
+    private ReactiveChangeVersionRepository changeVersions;
+
+    private ReactiveTaskService taskService;
+
+    private AuthenticatedUser authenticatedUser;
+    private AuthenticatedUser authenticatedAdmin;
+
+    @BeforeEach
+    void setUp() {
+        this.taskService = new ReactiveTaskService(this.taskRepository, this.changeVersions);
+
+        this.authenticatedUser = new AuthenticatedUser(1L, "testUser", "network",
+                List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        this.authenticatedAdmin = new AuthenticatedUser(2L, "testAdmin", "network",
+                List.of(new SimpleGrantedAuthority("ROLE_ADMIN")));
+    }
+
+    @Test
+    void shouldCreateTaskWithInternalMarker_whenUserIsAdmin_givenTaskIsDone() {
+        givenNextChangeVersion(2L, 5L);
+        when(this.taskRepository.insert(2L, "Titre", "[Internal Use] Description", true, 5L))
+                .thenReturn(Mono.just(51L));
+
+        ResponseEntity<Task> response = this.taskService.create(task(true), this.authenticatedAdmin).block();
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals(51L, response.getBody().getId());
+        assertEquals("[Internal Use] Description", response.getBody().getDescription());
+        assertEquals("\"5\"", response.getHeaders().getETag());
+    }
+
+    @Test
+    void shouldReturnForbidden_whenUserHasUserRole_givenTaskIsDone() {
+        ResponseEntity<Task> response = this.taskService.create(task(true), this.authenticatedUser).block();
+
+        assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
+        verifyNoInteractions(this.taskRepository, this.changeVersions);
+    }
+
+    @Test
+    void shouldReturnForbidden_whenUpdatingTask_givenTaskOfAnotherUser() {
+        givenNextChangeVersion(1L, 5L);
+        when(this.taskRepository.updateOwned(3L, 1L, "Titre", "Description", false, 5L, Long.MAX_VALUE))
+                .thenReturn(Mono.just(0));
+        when(this.changeVersions.decrement(1L)).thenReturn(Mono.just(1));
+        when(this.taskRepository.existsById(3L)).thenReturn(Mono.just(true));
+
+        ResponseEntity<Task> response = this.taskService.update(3L, task(false), this.authenticatedUser, null)
+                .block();
+
+        assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
+        verify(this.changeVersions).decrement(1L);
+    }
+
+    @Test
+    void shouldReturnNotFound_whenUserHasUserRole_givenUnknownTaskSetToDone() {
+        when(this.taskRepository.existsById(99L)).thenReturn(Mono.just(false));
+
+        ResponseEntity<Task> response = this.taskService.update(99L, task(true), this.authenticatedUser, null)
+                .block();
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        verifyNoInteractions(this.changeVersions);
+    }
+
+    @Test
+    void shouldReturnNotFound_whenDeletingTask_givenUnknownTask() {
+        givenNextChangeVersion(1L, 5L);
+        when(this.taskRepository.deleteOwned(eq(99L), eq(1L), eq(5L), eq(Long.MAX_VALUE), any(Instant.class)))
+                .thenReturn(Mono.just(0));
+        when(this.changeVersions.decrement(1L)).thenReturn(Mono.just(1));
+        when(this.taskRepository.existsById(99L)).thenReturn(Mono.just(false));
+
+        ResponseEntity<Void> response = this.taskService.delete(99L, 1L, null).block();
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        verify(this.changeVersions).decrement(1L);
+    }
+
+    @Test
+    void shouldReturnPreconditionFailed_whenDeletingTask_givenTaskChangedSinceIfMatchVersion() {
+        givenNextChangeVersion(1L, 5L);
+        when(this.taskRepository.deleteOwned(eq(1L), eq(1L), eq(5L), eq(3L), any(Instant.class)))
+                .thenReturn(Mono.just(0));
+        when(this.changeVersions.decrement(1L)).thenReturn(Mono.just(1));
+        when(this.taskRepository.findDTOByIdAndOwnerId(1L, 1L))
+                .thenReturn(Mono.just(new TaskDTO(1L, "Titre", null, false)));
+
+        ResponseEntity<Void> response = this.taskService.delete(1L, 1L, 3L).block();
+
+        assertEquals(HttpStatus.PRECONDITION_FAILED, response.getStatusCode());
+        verify(this.changeVersions).decrement(1L);
+    }
+
+    @Test
+    void shouldReturnPatchedTask_whenPatchingOwnTask_givenTitleOnly() {
+        TaskPatchDTO patch = new TaskPatchDTO();
+        patch.setTitle("Nouveau");
+        givenNextChangeVersion(1L, 5L);
+        when(this.taskRepository.patchOwned(1L, 1L, patch, 5L)).thenReturn(Mono.just(1));
+        when(this.taskRepository.findDTOByIdAndOwnerId(1L, 1L))
+                .thenReturn(Mono.just(new TaskDTO(1L, "Nouveau", "Description", false)));
+
+        ResponseEntity<TaskDTO> response = this.taskService.patch(1L, patch, this.authenticatedUser).block();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("Nouveau", response.getBody().getTitle());
+        verify(this.taskRepository).patchOwned(1L, 1L, patch, 5L);
+    }
+
+    @Test
+    void shouldReturnChangedTasksAndDeletedIds_whenSyncing_givenVersionBehind() {
+        List<TaskDTO> changed = List.of(new TaskDTO(4L, "Titre", "Description", false));
+        when(this.changeVersions.findById(1L)).thenReturn(Mono.just(changeVersion(12L, 3L)));
+        when(this.taskRepository.findDTOsChanged(1L, 5L, 12L)).thenReturn(Flux.fromIterable(changed));
+        when(this.taskRepository.findIdsDeleted(1L, 5L, 12L)).thenReturn(Flux.just(2L));
+
+        ResponseEntity<TaskChangesDTO> response = this.taskService.getChanges(1L, 5L).block();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(12L, response.getBody().getVersion());
+        assertEquals(changed, response.getBody().getTasks());
+        assertEquals(List.of(2L), response.getBody().getDeleted());
+    }
+
+    @Test
+    void shouldReturnGone_whenSyncing_givenDeletionsPurgedSinceVersion() {
+        when(this.changeVersions.findById(1L)).thenReturn(Mono.just(changeVersion(12L, 8L)));
+
+        ResponseEntity<TaskChangesDTO> response = this.taskService.getChanges(1L, 5L).block();
+
+        assertEquals(HttpStatus.GONE, response.getStatusCode());
+        verifyNoInteractions(this.taskRepository);
+    }
+
+    private void givenNextChangeVersion(Long ownerId, long version) {
+        when(this.changeVersions.increment(ownerId)).thenReturn(Mono.just(1));
+        when(this.changeVersions.findVersion(ownerId)).thenReturn(Mono.just(version));
+    }
+
+    private static ChangeVersion changeVersion(long version, long purgedVersion) {
+        ChangeVersion changeVersion = new ChangeVersion(1L);
+        changeVersion.setVersion(version);
+        changeVersion.setPurgedVersion(purgedVersion);
+        return changeVersion;
+    }
+
+    private static Task task(boolean done) {
+        Task task = new Task();
+        task.setTitle("Titre");
+        task.setDescription("Description");
+        task.setDone(done);
+        return task;
+    }
+}
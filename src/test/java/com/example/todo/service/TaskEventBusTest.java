@@ -0,0 +1,83 @@
+package com.example.todo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.todo.dto.TaskDTO;
+
+class TaskEventBusTest {
+
+    private final List<Runnable> pendingDispatches = new ArrayList<>();
+
+    @Test
+    void shouldDeliverOwnEventsInOrder_whenTasksChange() {
+        TaskEventBus bus = new TaskEventBus(8, Runnable::run);
+        RecordingSink sink = new RecordingSink();
+        bus.subscribe(1L, sink);
+        TaskDTO task = new TaskDTO(3L, "Titre", null, false);
+
+        bus.onTaskCreated(1L, task);
+        bus.onTaskSaved(1L, task);
+        bus.onTaskDeleted(1L, 3L);
+        bus.onTaskCreated(2L, new TaskDTO(4L, "Titre", null, false));
+
+        assertEquals(List.of("created " + task, "updated " + task, "deleted " + Map.of("id", 3L)), sink.events);
+    }
+
+    @Test
+    void shouldEvictSubscriber_whenBufferIsFull() {
+        TaskEventBus bus = new TaskEventBus(2, this.pendingDispatches::add);
+        RecordingSink slow = new RecordingSink();
+        bus.subscribe(1L, slow);
+
+        for (long id = 1; id <= 3; id++) {
+            bus.onTaskDeleted(1L, id);
+        }
+
+        assertTrue(slow.closed);
+        assertEquals(0, bus.subscriberCount());
+        assertEquals(1, bus.evictedCount());
+        this.pendingDispatches.forEach(Runnable::run);
+        assertTrue(slow.events.isEmpty());
+    }
+
+    @Test
+    void shouldStopDelivering_whenSubscriptionIsCancelled() {
+        TaskEventBus bus = new TaskEventBus(8, Runnable::run);
+        RecordingSink sink = new RecordingSink();
+        TaskEventBus.Subscription subscription = bus.subscribe(1L, sink);
+
+        subscription.cancel();
+        bus.onTaskDeleted(1L, 3L);
+
+        assertTrue(sink.closed);
+        assertTrue(sink.events.isEmpty());
+        assertEquals(0, bus.subscriberCount());
+    }
+
+    private static final class RecordingSink implements TaskEventBus.Sink {
+        private final List<String> events = new ArrayList<>();
+        private boolean closed;
+
+        @Override
+        public void send(String name, Object data) {
+            this.events.add(name + " " + data);
+        }
+
+        @Override
+        public void heartbeat() {
+            this.events.add("heartbeat");
+        }
+
+        @Override
+        public void close() {
+            this.closed = true;
+        }
+    }
+}
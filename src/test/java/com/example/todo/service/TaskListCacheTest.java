@@ -0,0 +1,57 @@
+package com.example.todo.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TaskListCacheTest {
+
+    private TaskListCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        this.cache = new TaskListCache(1024);
+        this.loads = new AtomicInteger();
+    }
+
+    @Test
+    void shouldLoadOnce_whenGettingList_givenSameVersion() {
+        this.cache.get(1L, 3L, () -> json("[1]"));
+        byte[] second = this.cache.get(1L, 3L, () -> json("[2]"));
+
+        assertArrayEquals(bytes("[1]"), second);
+        assertEquals(1, this.loads.get());
+        assertEquals(0.5, this.cache.stats().hitRate());
+    }
+
+    @Test
+    void shouldReload_whenGettingList_givenVersionChanged() {
+        this.cache.get(1L, 3L, () -> json("[1]"));
+        this.cache.onVersionChanged(1L, 4L);
+
+        assertArrayEquals(bytes("[2]"), this.cache.get(1L, 4L, () -> json("[2]")));
+        assertEquals(2, this.loads.get());
+    }
+
+    @Test
+    void shouldNotServeEntry_whenGettingList_givenEntryOfOlderVersion() {
+        this.cache.get(1L, 3L, () -> json("[1]"));
+
+        assertArrayEquals(bytes("[2]"), this.cache.get(1L, 4L, () -> json("[2]")));
+    }
+
+    private byte[] json(String value) {
+        this.loads.incrementAndGet();
+        return bytes(value);
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.todo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.todo.dto.TaskDTO;
+
+class TaskSearchIndexTest {
+
+    private TaskSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        this.index = new TaskSearchIndex();
+        this.index.onTaskSaved(1L, new TaskDTO(1L, "Acheter du pain", "Boulangerie du coin", false));
+        this.index.onTaskSaved(1L, new TaskDTO(2L, "Réparer le vélo", "Acheter une chambre à air", false));
+        this.index.onTaskSaved(1L, new TaskDTO(3L, "Appeler le garage", null, true));
+        this.index.onTaskSaved(2L, new TaskDTO(4L, "Acheter du pain", null, false));
+    }
+
+    @Test
+    void shouldMatchPrefixesOfOwnTasksOnly_whenSearching_givenPartialTerm() {
+        assertEquals(List.of(1L, 2L), ids(this.index.search(1L, "ach", 10, null)));
+    }
+
+    @Test
+    void shouldRequireEveryTerm_whenSearching_givenSeveralTerms() {
+        assertEquals(List.of(2L), ids(this.index.search(1L, "acheter chambre", 10, null)));
+        assertTrue(this.index.search(1L, "acheter garage", 10, null).isEmpty());
+    }
+
+    @Test
+    void shouldIgnoreCaseAndAccents_whenSearching() {
+        assertEquals(List.of(2L), ids(this.index.search(1L, "VELO", 10, null)));
+    }
+
+    @Test
+    void shouldRankTitleAndWholeTermMatchesFirst_whenSearching() {
+        this.index.onTaskSaved(1L, new TaskDTO(5L, "Liste", "pain", false));
+        this.index.onTaskSaved(1L, new TaskDTO(6L, "Painture", null, false));
+
+        assertEquals(List.of(1L, 6L, 5L), ids(this.index.search(1L, "pain", 10, null)));
+    }
+
+    @Test
+    void shouldKeepBestHits_whenSearching_givenLimitBelowMatchCount() {
+        this.index.onTaskSaved(1L, new TaskDTO(9L, "Acheter acheter", null, false));
+
+        assertEquals(List.of(9L), ids(this.index.search(1L, "acheter", 1, null)));
+    }
+
+    @Test
+    void shouldContinueAfterLastHit_whenSearching_givenPosition() {
+        List<TaskSearchIndex.Hit> first = this.index.search(1L, "a", 2, null);
+        List<TaskSearchIndex.Hit> second = this.index.search(1L, "a", 2, first.get(1).position());
+
+        List<Long> all = new ArrayList<>(ids(first));
+        all.addAll(ids(second));
+
+        assertEquals(2, first.size());
+        assertEquals(ids(this.index.search(1L, "a", 10, null)), all);
+    }
+
+    @Test
+    void shouldReplaceTerms_whenTaskIsSavedAgain() {
+        this.index.onTaskSaved(1L, new TaskDTO(3L, "Appeler le plombier", null, true));
+
+        assertTrue(this.index.search(1L, "garage", 10, null).isEmpty());
+        assertEquals(List.of(3L), ids(this.index.search(1L, "plomb", 10, null)));
+    }
+
+    @Test
+    void shouldForgetTask_whenTaskIsDeleted() {
+        this.index.onTaskDeleted(1L, 1L);
+
+        assertEquals(List.of(2L), ids(this.index.search(1L, "acheter", 10, null)));
+        assertEquals(2, this.index.size(1L));
+    }
+
+    private static List<Long> ids(List<TaskSearchIndex.Hit> hits) {
+        return hits.stream().map(hit -> hit.getTask().getId()).collect(Collectors.toList());
+    }
+}
@@ -3,26 +3,42 @@ package com.example.todo.service;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 
+import com.example.todo.dto.TaskBatchResult;
+import com.example.todo.dto.TaskChangesDTO;
+import com.example.todo.dto.TaskDTO;
+import com.example.todo.dto.TaskPatchDTO;
+import com.example.todo.entity.ChangeVersion;
 import com.example.todo.entity.Role;
 import com.example.todo.entity.Task;
 import com.example.todo.entity.User;
+import com.example.todo.repository.ChangeVersionRepository;
 import com.example.todo.repository.TaskRepository;
+import com.example.todo.security.AuthenticatedUser;
 
 @ExtendWith(MockitoExtension.class)
 class TaskServiceTest {
@@ -33,59 +49,77 @@ class TaskServiceTest {
     @Mock
     private UserService userService;
 
+    @Mock
+    private TaskEvents taskEvents;
+
+    @Mock
+    private ChangeVersionRepository changeVersions;
+
     private TaskService taskService;
 
     private User mockUser;
     private User mockAdmin;
 
+    private AuthenticatedUser authenticatedUser;
+    private AuthenticatedUser authenticatedAdmin;
+
     @BeforeEach
     void setUp() {
-        this.taskService = new TaskService(this.taskRepository, this.userService);
+        this.taskService = new TaskService(this.taskRepository, this.userService, this.taskEvents,
+                this.changeVersions);
 
         this.mockUser = new User();
+        this.mockUser.setId(1L);
         this.mockUser.setUsername("testUser");
         this.mockUser.setPassword("network");
         this.mockUser.getRoles().add(Role.ROLE_USER);
 
         this.mockAdmin = new User();
+        this.mockAdmin.setId(2L);
         this.mockAdmin.setUsername("testAdmin");
         this.mockAdmin.setPassword("network");
         this.mockAdmin.getRoles().add(Role.ROLE_ADMIN);
+
+        this.authenticatedUser = new AuthenticatedUser(1L, "testUser", "network",
+                List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        this.authenticatedAdmin = new AuthenticatedUser(2L, "testAdmin", "network",
+                List.of(new SimpleGrantedAuthority("ROLE_ADMIN")));
     }
 
     @Test
     void shouldCreateTask_whenUserHasUserRole_givenTaskNotDone() {
-        when(this.userService.findByUsername("testUser")).thenReturn(Optional.of(this.mockUser));
+        when(this.userService.getReference(1L)).thenReturn(this.mockUser);
 
         Task taskToCreate = new Task();
         taskToCreate.setTitle("Titre");
         taskToCreate.setDescription("Description");
         taskToCreate.setDone(false);
 
-        ResponseEntity<Task> response = this.taskService.create(taskToCreate, "testUser");
+        ResponseEntity<Task> response = this.taskService.create(taskToCreate, this.authenticatedUser);
 
         assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals(this.mockUser, taskToCreate.getOwner());
         verify(this.taskRepository).save(any(Task.class));
+        verify(this.taskEvents).created(1L, new TaskDTO(null, "Titre", "Description", false));
     }
 
     @Test
     void shouldReturnForbidden_whenUserHasUserRole_givenTaskIsDone() {
-        when(this.userService.findByUsername("testUser")).thenReturn(Optional.of(this.mockUser));
-
         Task taskToCreate = new Task();
         taskToCreate.setTitle("Titre");
         taskToCreate.setDescription("Description");
         taskToCreate.setDone(true);
 
-        ResponseEntity<Task> response = this.taskService.create(taskToCreate, "testUser");
+        ResponseEntity<Task> response = this.taskService.create(taskToCreate, this.authenticatedUser);
 
         assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
         verify(this.taskRepository, never()).save(any(Task.class));
+        verifyNoInteractions(this.taskEvents);
     }
 
     @Test
     void shouldCreateTask_whenUserHasAdminRole_givenTaskIsDone() {
-        when(this.userService.findByUsername("testAdmin")).thenReturn(Optional.of(this.mockAdmin));
+        when(this.userService.getReference(2L)).thenReturn(this.mockAdmin);
         when(taskRepository.save(any(Task.class))).thenReturn(new Task());
 
         Task taskToCreate = new Task();
@@ -93,143 +127,479 @@ class TaskServiceTest {
         taskToCreate.setDescription("Description");
         taskToCreate.setDone(true);
 
-        ResponseEntity<Task> response = this.taskService.create(taskToCreate, "testAdmin");
+        ResponseEntity<Task> response = this.taskService.create(taskToCreate, this.authenticatedAdmin);
 
         assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals("[Internal Use] Description", taskToCreate.getDescription());
         verify(this.taskRepository).save(any(Task.class));
     }
 
     @Test
-    void shouldReturnUserTasks_whenGettingTasks_givenValidUsername() {
-        Task task1 = new Task();
-        task1.setId(1L);
-        Task task2 = new Task();
-        task2.setId(2L);
-        List<Task> expectedTasks = Arrays.asList(task1, task2);
+    void shouldLeaveDescriptionUnmarked_whenUserHasUserRole_givenNewTask() {
+        when(this.userService.getReference(1L)).thenReturn(this.mockUser);
 
-        when(this.taskRepository.findByOwnerUsername("testUser")).thenReturn(expectedTasks);
+        Task taskToCreate = new Task();
+        taskToCreate.setTitle("Titre");
+        taskToCreate.setDescription("Description");
 
-        List<Task> result = this.taskService.getTasksForUser("testUser");
+        this.taskService.create(taskToCreate, this.authenticatedUser);
+
+        assertEquals("Description", taskToCreate.getDescription());
+    }
+
+    @Test
+    void shouldNotMarkTwice_whenUserHasAdminRole_givenAlreadyMarkedDescription() {
+        when(this.userService.getReference(2L)).thenReturn(this.mockAdmin);
+
+        Task taskToCreate = new Task();
+        taskToCreate.setTitle("Titre");
+        taskToCreate.setDescription("[Internal Use] Description");
+
+        this.taskService.create(taskToCreate, this.authenticatedAdmin);
+
+        assertEquals("[Internal Use] Description", taskToCreate.getDescription());
+    }
+
+    @Test
+    void shouldMarkEmptyDescription_whenUserHasAdminRole_givenNullDescription() {
+        when(this.userService.getReference(2L)).thenReturn(this.mockAdmin);
+
+        Task taskToCreate = new Task();
+        taskToCreate.setTitle("Titre");
+
+        ResponseEntity<Task> response = this.taskService.create(taskToCreate, this.authenticatedAdmin);
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals("[Internal Use]", taskToCreate.getDescription());
+    }
+
+    @Test
+    void shouldReturnUserTasks_whenGettingTasks_givenValidOwnerId() {
+        List<TaskDTO> expectedTasks = Arrays.asList(
+                new TaskDTO(1L, "Titre 1", null, false),
+                new TaskDTO(2L, "Titre 2", null, true));
+
+        when(this.taskRepository.findDTOsByOwnerId(1L)).thenReturn(expectedTasks);
+
+        List<TaskDTO> result = this.taskService.getTasksForUser(1L);
 
         assertEquals(expectedTasks, result);
-        verify(this.taskRepository).findByOwnerUsername("testUser");
+        verify(this.taskRepository).findDTOsByOwnerId(1L);
     }
 
     @Test
-    void shouldUpdateTask_whenUserIsOwner_givenValidTaskData() {
-        Task existingTask = new Task();
-        existingTask.setId(1L);
-        existingTask.setOwner(this.mockUser);
-        existingTask.setTitle("Titre");
-        existingTask.setDescription("Description");
-        existingTask.setDone(false);
+    void shouldSeekAfterGivenId_whenGettingTaskPage_givenCursorAndLimit() {
+        List<TaskDTO> expectedTasks = Arrays.asList(new TaskDTO(3L, "Titre 3", null, false));
+
+        when(this.taskRepository.findDTOsByOwnerIdAfter(1L, 2L, PageRequest.of(0, 10)))
+                .thenReturn(expectedTasks);
+
+        List<TaskDTO> result = this.taskService.getTasksForUser(1L, 2L, 10);
+
+        assertEquals(expectedTasks, result);
+    }
+
+    @Test
+    void shouldVisitEachStreamedTask_whenIteratingUserTasks() {
+        TaskDTO task1 = new TaskDTO(1L, "Titre 1", null, false);
+        TaskDTO task2 = new TaskDTO(2L, "Titre 2", null, false);
+        when(this.taskRepository.streamDTOsByOwnerId(1L)).thenReturn(Stream.of(task1, task2));
 
+        List<TaskDTO> visited = new ArrayList<>();
+        this.taskService.forEachTaskOfUser(1L, visited::add);
+
+        assertEquals(Arrays.asList(task1, task2), visited);
+    }
+
+    @Test
+    void shouldUpdateTask_whenUserIsOwner_givenValidTaskData() {
         Task updatedTask = new Task();
         updatedTask.setTitle("Titre modif");
         updatedTask.setDescription("Description modif");
         updatedTask.setDone(false);
 
-        when(this.taskRepository.findById(1L)).thenReturn(Optional.of(existingTask));
-        when(this.taskRepository.save(any(Task.class))).thenReturn(existingTask);
+        when(this.taskRepository.updateOwned(1L, 1L, "Titre modif", "Description modif", false, 1L, Long.MAX_VALUE))
+                .thenReturn(1);
 
-        ResponseEntity<?> response = this.taskService.update(1L, updatedTask, "testUser");
+        ResponseEntity<Task> response = this.taskService.update(1L, updatedTask, this.authenticatedUser, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertEquals("Titre modif", existingTask.getTitle());
-        assertEquals("Description modif", existingTask.getDescription());
-        verify(this.taskRepository).save(existingTask);
+        assertEquals(1L, response.getBody().getId());
+        assertEquals("Titre modif", response.getBody().getTitle());
+        assertEquals("Description modif", response.getBody().getDescription());
+        verify(this.taskRepository, never()).existsByIdAndDeletedFalse(any());
     }
 
     @Test
     void shouldReturnForbidden_whenUserIsNotOwner_givenTaskUpdate() {
-        User otherUser = new User();
-        otherUser.setUsername("otherUser");
+        Task updatedTask = new Task();
+        updatedTask.setTitle("Titre");
+
+        when(this.taskRepository.updateOwned(1L, 1L, "Titre", null, false, 1L, Long.MAX_VALUE)).thenReturn(0);
+        when(this.taskRepository.existsByIdAndDeletedFalse(1L)).thenReturn(true);
+
+        ResponseEntity<?> response = this.taskService.update(1L, updatedTask, this.authenticatedUser, null);
 
-        Task existingTask = new Task();
-        existingTask.setId(1L);
-        existingTask.setOwner(otherUser);
+        assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
+    }
 
+    @Test
+    void shouldReturnNotFound_whenTaskDoesNotExist_givenTaskUpdate() {
         Task updatedTask = new Task();
         updatedTask.setTitle("Titre");
 
-        when(this.taskRepository.findById(1L)).thenReturn(Optional.of(existingTask));
+        when(this.taskRepository.updateOwned(1L, 1L, "Titre", null, false, 1L, Long.MAX_VALUE)).thenReturn(0);
+        when(this.taskRepository.existsByIdAndDeletedFalse(1L)).thenReturn(false);
 
-        ResponseEntity<?> response = this.taskService.update(1L, updatedTask, "testUser");
+        ResponseEntity<?> response = this.taskService.update(1L, updatedTask, this.authenticatedUser, null);
 
-        assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
-        verify(this.taskRepository, never()).save(any(Task.class));
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
     }
 
     @Test
     void shouldReturnForbidden_whenUserHasUserRole_givenTaskSetToDone() {
-        Task existingTask = new Task();
-        existingTask.setId(1L);
-        existingTask.setOwner(this.mockUser);
-        existingTask.setDone(false);
-
         Task updatedTask = new Task();
         updatedTask.setTitle("Titre");
         updatedTask.setDescription("Description");
         updatedTask.setDone(true);
 
-        when(this.taskRepository.findById(1L)).thenReturn(Optional.of(existingTask));
+        when(this.taskRepository.existsByIdAndDeletedFalse(1L)).thenReturn(true);
 
-        ResponseEntity<?> response = this.taskService.update(1L, updatedTask, "testUser");
+        ResponseEntity<?> response = this.taskService.update(1L, updatedTask, this.authenticatedUser, null);
 
         assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
-        verify(this.taskRepository, never()).save(any(Task.class));
+        verify(this.taskRepository, never()).updateOwned(any(), any(), any(), any(), eq(true), any(Long.class),
+                any(Long.class));
+        verifyNoInteractions(this.changeVersions);
     }
 
     @Test
-    void shouldUpdateTask_whenUserHasAdminRole_givenTaskSetToDone() {
-        Task existingTask = new Task();
-        existingTask.setId(1L);
-        existingTask.setOwner(this.mockAdmin);
-        existingTask.setDone(false);
+    void shouldReturnNotFound_whenUserHasUserRole_givenUnknownTaskSetToDone() {
+        Task updatedTask = new Task();
+        updatedTask.setTitle("Titre");
+        updatedTask.setDone(true);
+
+        when(this.taskRepository.existsByIdAndDeletedFalse(99L)).thenReturn(false);
+
+        ResponseEntity<?> response = this.taskService.update(99L, updatedTask, this.authenticatedUser, null);
 
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        verifyNoInteractions(this.changeVersions);
+    }
+
+    @Test
+    void shouldUpdateTaskWithInternalMarker_whenUserHasAdminRole_givenTaskSetToDone() {
         Task updatedTask = new Task();
         updatedTask.setTitle("Titre");
         updatedTask.setDescription("Description");
         updatedTask.setDone(true);
 
-        when(this.taskRepository.findById(1L)).thenReturn(Optional.of(existingTask));
-        when(this.taskRepository.save(any(Task.class))).thenReturn(existingTask);
+        when(this.taskRepository.updateOwned(1L, 2L, "Titre", "[Internal Use] Description", true, 1L, Long.MAX_VALUE))
+                .thenReturn(1);
 
-        ResponseEntity<?> response = taskService.update(1L, updatedTask, "testAdmin");
+        ResponseEntity<Task> response = taskService.update(1L, updatedTask, this.authenticatedAdmin, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertTrue(existingTask.isDone());
-        verify(this.taskRepository).save(existingTask);
+        assertTrue(response.getBody().isDone());
+        assertEquals("[Internal Use] Description", response.getBody().getDescription());
     }
 
     @Test
-    void shouldDeleteTask_whenUserIsOwner_givenValidTaskId() {
-        Task existingTask = new Task();
-        existingTask.setId(1L);
-        existingTask.setOwner(this.mockUser);
+    void shouldKeepSingleInternalMarker_whenUserHasAdminRole_givenAlreadyMarkedDescription() {
+        Task updatedTask = new Task();
+        updatedTask.setTitle("Titre");
+        updatedTask.setDescription("[Internal Use] Description");
+
+        when(this.taskRepository.updateOwned(1L, 2L, "Titre", "[Internal Use] Description", false, 1L, Long.MAX_VALUE))
+                .thenReturn(1);
+
+        ResponseEntity<Task> response = taskService.update(1L, updatedTask, this.authenticatedAdmin, null);
+
+        assertEquals("[Internal Use] Description", response.getBody().getDescription());
+    }
+
+    @Test
+    void shouldWriteOnlySentFields_whenPatchingTask_givenDoneOnly() {
+        TaskPatchDTO patch = new TaskPatchDTO();
+        patch.setDone(false);
+        TaskDTO patched = new TaskDTO(1L, "Titre", "Description", false);
+
+        when(this.taskRepository.patchOwned(1L, 1L, patch, 1L)).thenReturn(1);
+        when(this.taskRepository.findDTOByIdAndOwnerId(1L, 1L)).thenReturn(Optional.of(patched));
+
+        ResponseEntity<TaskDTO> response = this.taskService.patch(1L, patch, this.authenticatedUser);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(patched, response.getBody());
+    }
+
+    @Test
+    void shouldReturnForbidden_whenUserHasUserRole_givenPatchSettingDone() {
+        TaskPatchDTO patch = new TaskPatchDTO();
+        patch.setDone(true);
+
+        when(this.taskRepository.existsByIdAndDeletedFalse(1L)).thenReturn(true);
 
-        when(this.taskRepository.findById(1L)).thenReturn(Optional.of(existingTask));
+        ResponseEntity<TaskDTO> response = this.taskService.patch(1L, patch, this.authenticatedUser);
 
-        ResponseEntity<?> response = this.taskService.delete(1L, "testUser");
+        assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
+        verify(this.taskRepository, never()).patchOwned(any(), any(), any(), any(Long.class));
+        verifyNoInteractions(this.changeVersions);
+    }
+
+    @Test
+    void shouldMarkPatchedDescription_whenUserHasAdminRole_givenDescription() {
+        TaskPatchDTO patch = new TaskPatchDTO();
+        patch.setDescription("Description");
+
+        when(this.taskRepository.patchOwned(1L, 2L, patch, 1L)).thenReturn(1);
+        when(this.taskRepository.findDTOByIdAndOwnerId(1L, 2L))
+                .thenReturn(Optional.of(new TaskDTO(1L, "Titre", "[Internal Use] Description", false)));
+
+        this.taskService.patch(1L, patch, this.authenticatedAdmin);
+
+        assertEquals("[Internal Use] Description", patch.getDescription());
+    }
+
+    @Test
+    void shouldReturnNotFound_whenTaskDoesNotExist_givenTaskPatch() {
+        TaskPatchDTO patch = new TaskPatchDTO();
+        patch.setTitle("Titre");
+
+        when(this.taskRepository.patchOwned(1L, 1L, patch, 1L)).thenReturn(0);
+        when(this.taskRepository.existsByIdAndDeletedFalse(1L)).thenReturn(false);
+
+        ResponseEntity<TaskDTO> response = this.taskService.patch(1L, patch, this.authenticatedUser);
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
+    @Test
+    void shouldReportPerItemStatus_whenCreatingBatch_givenOneDoneTaskFromUser() {
+        when(this.userService.getReference(1L)).thenReturn(this.mockUser);
+        when(this.taskRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Task> saved = invocation.getArgument(0);
+            long id = 100;
+            for (Task task : saved) {
+                task.setId(id++);
+            }
+            return saved;
+        });
+
+        Task open = new Task();
+        open.setTitle("Titre 1");
+        Task done = new Task();
+        done.setTitle("Titre 2");
+        done.setDone(true);
+
+        ResponseEntity<List<TaskBatchResult>> response =
+                this.taskService.createAll(Arrays.asList(open, done), this.authenticatedUser);
+
+        assertEquals(HttpStatus.MULTI_STATUS, response.getStatusCode());
+        assertEquals(201, response.getBody().get(0).getStatus());
+        assertEquals(100L, response.getBody().get(0).getTask().getId());
+        assertEquals(403, response.getBody().get(1).getStatus());
+        assertEquals(this.mockUser, open.getOwner());
+        verify(this.taskRepository).saveAll(List.of(open));
+    }
+
+    @Test
+    void shouldSettleOwnershipOnce_whenUpdatingBatch_givenOwnedForeignAndMissingTasks() {
+        Task owned = new Task();
+        owned.setId(1L);
+        owned.setTitle("Titre");
+
+        Task ownedUpdate = new Task();
+        ownedUpdate.setId(1L);
+        ownedUpdate.setTitle("Titre modif");
+        Task foreignUpdate = new Task();
+        foreignUpdate.setId(2L);
+        Task missingUpdate = new Task();
+        missingUpdate.setId(3L);
+
+        when(this.taskRepository.findAllOwned(1L, Set.of(1L, 2L, 3L))).thenReturn(List.of(owned));
+        when(this.taskRepository.findExistingIds(Set.of(2L, 3L))).thenReturn(List.of(2L));
+
+        ResponseEntity<List<TaskBatchResult>> response = this.taskService.updateAll(
+                Arrays.asList(ownedUpdate, foreignUpdate, missingUpdate), this.authenticatedUser);
+
+        List<TaskBatchResult> results = response.getBody();
+        assertEquals(200, results.get(0).getStatus());
+        assertEquals("Titre modif", owned.getTitle());
+        assertEquals(403, results.get(1).getStatus());
+        assertEquals(404, results.get(2).getStatus());
+    }
+
+    @Test
+    void shouldDeleteOwnedTasksInOneStatement_whenDeletingBatch() {
+        when(this.taskRepository.findOwnedIds(1L, List.of(1L, 2L, 3L))).thenReturn(List.of(1L, 3L));
+        when(this.taskRepository.findExistingIds(Set.of(2L))).thenReturn(List.of());
+
+        ResponseEntity<List<TaskBatchResult>> response = this.taskService.deleteAll(List.of(1L, 2L, 3L), 1L);
+
+        List<TaskBatchResult> results = response.getBody();
+        assertEquals(204, results.get(0).getStatus());
+        assertEquals(404, results.get(1).getStatus());
+        assertEquals(204, results.get(2).getStatus());
+        verify(this.taskRepository).deleteAllOwned(eq(1L), eq(Set.of(1L, 3L)), eq(1L), any(Instant.class));
+    }
+
+    @Test
+    void shouldDeleteTask_whenUserIsOwner_givenValidTaskId() {
+        when(this.taskRepository.deleteOwned(eq(1L), eq(1L), eq(1L), eq(Long.MAX_VALUE), any(Instant.class)))
+                .thenReturn(1);
+
+        ResponseEntity<?> response = this.taskService.delete(1L, 1L, null);
 
         assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
-        verify(this.taskRepository).delete(existingTask);
+        verify(this.taskRepository, never()).existsByIdAndDeletedFalse(any());
+        verify(this.taskEvents).deleted(1L, 1L);
     }
 
     @Test
     void shouldReturnForbidden_whenUserIsNotOwner_givenTaskDeletion() {
-        User otherUser = new User();
-        otherUser.setUsername("otherUser");
+        when(this.taskRepository.deleteOwned(eq(1L), eq(1L), eq(1L), eq(Long.MAX_VALUE), any(Instant.class)))
+                .thenReturn(0);
+        when(this.taskRepository.existsByIdAndDeletedFalse(1L)).thenReturn(true);
+
+        ResponseEntity<?> response = this.taskService.delete(1L, 1L, null);
+
+        assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
+    }
 
-        Task existingTask = new Task();
-        existingTask.setId(1L);
-        existingTask.setOwner(otherUser);
+    @Test
+    void shouldReturnNotFound_whenTaskDoesNotExist_givenTaskDeletion() {
+        when(this.taskRepository.deleteOwned(eq(1L), eq(1L), eq(1L), eq(Long.MAX_VALUE), any(Instant.class)))
+                .thenReturn(0);
+        when(this.taskRepository.existsByIdAndDeletedFalse(1L)).thenReturn(false);
 
-        when(this.taskRepository.findById(1L)).thenReturn(Optional.of(existingTask));
+        ResponseEntity<?> response = this.taskService.delete(1L, 1L, null);
 
-        ResponseEntity<?> response = this.taskService.delete(1L, "testUser");
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
 
-        assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
-        verify(this.taskRepository, never()).delete(any(Task.class));
+    @Test
+    void shouldStampTaskWithNextChangeVersion_whenUpdatingTask_givenExistingCounter() {
+        Task updatedTask = new Task();
+        updatedTask.setTitle("Titre");
+
+        when(this.changeVersions.increment(1L)).thenReturn(1);
+        when(this.changeVersions.findVersion(1L)).thenReturn(7L);
+        when(this.taskRepository.updateOwned(1L, 1L, "Titre", null, false, 7L, Long.MAX_VALUE)).thenReturn(1);
+
+        ResponseEntity<Task> response = this.taskService.update(1L, updatedTask, this.authenticatedUser, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(this.changeVersions, never()).save(any());
+    }
+
+    @Test
+    void shouldReturnChangedTasksAndDeletedIds_whenSyncing_givenVersionBehind() {
+        ChangeVersion current = new ChangeVersion(1L);
+        current.setVersion(12L);
+        current.setPurgedVersion(3L);
+        List<TaskDTO> changed = List.of(new TaskDTO(4L, "Titre", "Description", false));
+
+        when(this.changeVersions.findById(1L)).thenReturn(Optional.of(current));
+        when(this.taskRepository.findDTOsChanged(1L, 5L, 12L)).thenReturn(changed);
+        when(this.taskRepository.findIdsDeleted(1L, 5L, 12L)).thenReturn(List.of(2L));
+
+        ResponseEntity<TaskChangesDTO> response = this.taskService.getChanges(1L, 5L);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(12L, response.getBody().getVersion());
+        assertEquals(changed, response.getBody().getTasks());
+        assertEquals(List.of(2L), response.getBody().getDeleted());
+    }
+
+    @Test
+    void shouldReturnGone_whenSyncing_givenDeletionsPurgedSinceVersion() {
+        ChangeVersion current = new ChangeVersion(1L);
+        current.setVersion(12L);
+        current.setPurgedVersion(8L);
+
+        when(this.changeVersions.findById(1L)).thenReturn(Optional.of(current));
+
+        ResponseEntity<TaskChangesDTO> response = this.taskService.getChanges(1L, 5L);
+
+        assertEquals(HttpStatus.GONE, response.getStatusCode());
+        verifyNoInteractions(this.taskRepository);
+    }
+
+    @Test
+    void shouldReturnPreconditionFailed_whenUpdatingTask_givenTaskChangedSinceIfMatchVersion() {
+        Task updatedTask = new Task();
+        updatedTask.setTitle("Titre");
+
+        when(this.taskRepository.updateOwned(1L, 1L, "Titre", null, false, 1L, 4L)).thenReturn(0);
+        when(this.taskRepository.findDTOByIdAndOwnerId(1L, 1L))
+                .thenReturn(Optional.of(new TaskDTO(1L, "Titre", null, false)));
+
+        ResponseEntity<Task> response = this.taskService.update(1L, updatedTask, this.authenticatedUser, 4L);
+
+        assertEquals(HttpStatus.PRECONDITION_FAILED, response.getStatusCode());
+        verify(this.taskEvents, never()).saved(any(), any());
+    }
+
+    @Test
+    void shouldKeepChangeVersion_whenUpdatingTask_givenTaskDoesNotExist() {
+        TaskVersions taskVersions = new TaskVersions(this.changeVersions, 100);
+        TaskService service = new TaskService(this.taskRepository, this.userService,
+                new TaskEvents(List.of(taskVersions)), this.changeVersions);
+        Task updatedTask = new Task();
+        updatedTask.setTitle("Titre");
+
+        when(this.changeVersions.findById(1L)).thenReturn(Optional.of(changeVersion(6L)));
+        when(this.changeVersions.increment(1L)).thenReturn(1);
+        when(this.changeVersions.findVersion(1L)).thenReturn(7L);
+        when(this.taskRepository.updateOwned(1L, 1L, "Titre", null, false, 7L, Long.MAX_VALUE)).thenReturn(0);
+        when(this.taskRepository.existsByIdAndDeletedFalse(1L)).thenReturn(false);
+        assertEquals(6L, taskVersions.current(1L));
+
+        ResponseEntity<Task> response = service.update(1L, updatedTask, this.authenticatedUser, null);
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertEquals(6L, taskVersions.current(1L));
+        verify(this.changeVersions).decrement(1L);
+    }
+
+    @Test
+    void shouldKeepChangeVersion_whenDeletingTask_givenTaskChangedSinceIfMatchVersion() {
+        TaskVersions taskVersions = new TaskVersions(this.changeVersions, 100);
+        TaskService service = new TaskService(this.taskRepository, this.userService,
+                new TaskEvents(List.of(taskVersions)), this.changeVersions);
+
+        when(this.changeVersions.findById(1L)).thenReturn(Optional.of(changeVersion(6L)));
+        when(this.changeVersions.increment(1L)).thenReturn(1);
+        when(this.changeVersions.findVersion(1L)).thenReturn(7L);
+        when(this.taskRepository.deleteOwned(eq(1L), eq(1L), eq(7L), eq(4L), any(Instant.class))).thenReturn(0);
+        when(this.taskRepository.findDTOByIdAndOwnerId(1L, 1L))
+                .thenReturn(Optional.of(new TaskDTO(1L, "Titre", null, false)));
+        assertEquals(6L, taskVersions.current(1L));
+
+        ResponseEntity<Void> response = service.delete(1L, 1L, 4L);
+
+        assertEquals(HttpStatus.PRECONDITION_FAILED, response.getStatusCode());
+        assertEquals(6L, taskVersions.current(1L));
+        verify(this.changeVersions).decrement(1L);
+    }
+
+    @Test
+    void shouldPublishChangeVersion_whenDeletingTask_givenOwnedTask() {
+        when(this.changeVersions.increment(1L)).thenReturn(1);
+        when(this.changeVersions.findVersion(1L)).thenReturn(7L);
+        when(this.taskRepository.deleteOwned(eq(1L), eq(1L), eq(7L), eq(Long.MAX_VALUE), any(Instant.class)))
+                .thenReturn(1);
+
+        this.taskService.delete(1L, 1L, null);
+
+        verify(this.taskEvents).versionChanged(1L, 7L);
+        verify(this.changeVersions, never()).decrement(any());
+    }
+
+    private static ChangeVersion changeVersion(long version) {
+        ChangeVersion changeVersion = new ChangeVersion(1L);
+        changeVersion.setVersion(version);
+        return changeVersion;
     }
 }
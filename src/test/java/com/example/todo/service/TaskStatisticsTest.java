@@ -0,0 +1,48 @@
+package com.example.todo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.todo.dto.TaskDTO;
+import com.example.todo.dto.TaskStatsDTO;
+
+class TaskStatisticsTest {
+
+    private TaskStatistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        this.statistics = new TaskStatistics();
+        this.statistics.onTaskSaved(1L, new TaskDTO(1L, "Titre", null, false));
+        this.statistics.onTaskSaved(1L, new TaskDTO(2L, "Titre", "[Internal Use] Description", true));
+        this.statistics.onTaskSaved(2L, new TaskDTO(3L, "Titre", null, true));
+    }
+
+    @Test
+    void shouldCountOwnTasksOnly_whenGettingStats() {
+        assertEquals(new TaskStatsDTO(2, 1, 1, 1, 1), this.statistics.of(1L));
+    }
+
+    @Test
+    void shouldReturnZeros_whenGettingStats_givenUserWithoutTasks() {
+        assertEquals(new TaskStatsDTO(), this.statistics.of(3L));
+    }
+
+    @Test
+    void shouldMoveCounters_whenTaskIsSavedAgain_givenChangedFlags() {
+        this.statistics.onTaskSaved(1L, new TaskDTO(1L, "Titre", "[Internal Use]", true));
+        this.statistics.onTaskSaved(1L, new TaskDTO(2L, "Titre", "Description", false));
+
+        assertEquals(new TaskStatsDTO(2, 1, 1, 1, 1), this.statistics.of(1L));
+    }
+
+    @Test
+    void shouldUncountTask_whenTaskIsDeleted() {
+        this.statistics.onTaskDeleted(1L, 2L);
+        this.statistics.onTaskDeleted(1L, 42L);
+
+        assertEquals(new TaskStatsDTO(1, 0, 1, 0, 0), this.statistics.of(1L));
+    }
+}
@@ -12,6 +12,7 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.Optional;
+import java.util.Set;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -21,9 +22,14 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import com.example.todo.dto.UserCredentials;
 import com.example.todo.entity.Role;
 import com.example.todo.entity.User;
+import com.example.todo.repository.ChangeVersionRepository;
 import com.example.todo.repository.UserRepository;
+import com.example.todo.security.AuthenticatedUser;
+import com.example.todo.security.TokenRevocations;
+import com.example.todo.security.UserDetailsCache;
 
 @ExtendWith(MockitoExtension.class)
 class UserServiceTest {
@@ -34,13 +40,23 @@ class UserServiceTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private UserDetailsCache userDetailsCache;
+
+    @Mock
+    private TokenRevocations tokenRevocations;
+
+    @Mock
+    private ChangeVersionRepository changeVersionRepository;
+
     private UserService userService;
 
     private User mockUser;
 
     @BeforeEach
     void setUp() {
-        this.userService = new UserService(this.userRepository, this.passwordEncoder);
+        this.userService = new UserService(this.userRepository, this.passwordEncoder, this.userDetailsCache,
+                this.tokenRevocations, this.changeVersionRepository);
 
         this.mockUser = new User();
         this.mockUser.setId(1L);
@@ -51,56 +67,65 @@ class UserServiceTest {
 
     @Test
     void shouldRegisterUser_whenUsernameIsNew_givenValidCredentials() {
-        when(this.userRepository.findByUsername("testUser")).thenReturn(Optional.empty());
+        when(this.userRepository.existsByUsername("testUser")).thenReturn(false);
         when(this.passwordEncoder.encode("network")).thenReturn("encodedPassword");
         when(this.userRepository.save(any(User.class))).thenReturn(this.mockUser);
 
         this.userService.register("testUser", "network");
 
-        verify(this.userRepository).findByUsername("testUser");
+        verify(this.userRepository).existsByUsername("testUser");
         verify(this.passwordEncoder).encode("network");
         verify(this.userRepository).save(any(User.class));
+        verify(this.userDetailsCache).invalidate("testUser");
     }
 
     @Test
     void shouldThrowException_whenUsernameExists_givenExistingUser() {
-        when(this.userRepository.findByUsername("existingUser")).thenReturn(Optional.of(this.mockUser));
+        when(this.userRepository.existsByUsername("existingUser")).thenReturn(true);
 
         assertThrows(RuntimeException.class, () -> {
             this.userService.register("existingUser", "network");
         });
 
-        verify(this.userRepository).findByUsername("existingUser");
+        verify(this.userRepository).existsByUsername("existingUser");
         verify(this.passwordEncoder, never()).encode(anyString());
         verify(this.userRepository, never()).save(any(User.class));
     }
 
     @Test
-    void shouldReturnUser_whenFindingByUsername_givenExistingUser() {
-        when(this.userRepository.findByUsername("testUser")).thenReturn(Optional.of(this.mockUser));
+    void shouldReturnCredentials_whenFindingByUsername_givenExistingUser() {
+        when(this.userRepository.findByUsername("testUser")).thenReturn(Optional.of(user(Role.ROLE_USER)));
 
-        Optional<User> result = this.userService.findByUsername("testUser");
+        Optional<UserCredentials> result = this.userService.findByUsername("testUser");
 
         assertTrue(result.isPresent());
-        assertEquals(this.mockUser, result.get());
+        assertEquals(1L, result.get().getId());
+        assertEquals("testUser", result.get().getUsername());
+        assertEquals(Set.of(Role.ROLE_USER), result.get().getRoles());
+    }
+
+    @Test
+    void shouldCopyEveryRole_whenFindingByUsername_givenUserWithSeveralRoles() {
+        when(this.userRepository.findByUsername("testUser"))
+                .thenReturn(Optional.of(user(Role.ROLE_USER, Role.ROLE_ADMIN)));
 
-        verify(this.userRepository).findByUsername("testUser");
+        UserCredentials result = this.userService.findByUsername("testUser").orElseThrow();
+
+        assertEquals(Set.of(Role.ROLE_USER, Role.ROLE_ADMIN), result.getRoles());
     }
 
     @Test
     void shouldReturnEmpty_whenFindingByUsername_givenNonExistentUser() {
         when(this.userRepository.findByUsername("nonExistentUser")).thenReturn(Optional.empty());
 
-        Optional<User> result = this.userService.findByUsername("nonExistentUser");
+        Optional<UserCredentials> result = this.userService.findByUsername("nonExistentUser");
 
         assertFalse(result.isPresent());
-
-        verify(this.userRepository).findByUsername("nonExistentUser");
     }
 
     @Test
     void shouldReturnUserDetails_whenLoadingByUsername_givenExistingUser() {
-        when(this.userRepository.findByUsername("testUser")).thenReturn(Optional.of(this.mockUser));
+        when(this.userRepository.findByUsername("testUser")).thenReturn(Optional.of(user(Role.ROLE_USER)));
 
         UserDetails result = this.userService.loadUserByUsername("testUser");
 
@@ -108,8 +133,16 @@ class UserServiceTest {
         assertEquals("testUser", result.getUsername());
         assertEquals("encodedPassword", result.getPassword());
         assertEquals(1, result.getAuthorities().size());
+        assertEquals(1L, ((AuthenticatedUser) result).getId());
+    }
+
+    @Test
+    void shouldReturnUserDetailsWithoutAuthorities_whenLoadingByUsername_givenUserWithoutRoles() {
+        when(this.userRepository.findByUsername("testUser")).thenReturn(Optional.of(user()));
 
-        verify(this.userRepository).findByUsername("testUser");
+        UserDetails result = this.userService.loadUserByUsername("testUser");
+
+        assertTrue(result.getAuthorities().isEmpty());
     }
 
     @Test
@@ -119,7 +152,26 @@ class UserServiceTest {
         assertThrows(RuntimeException.class, () -> {
             this.userService.loadUserByUsername("nonExistentUser");
         });
+    }
+
+    @Test
+    void shouldReplaceRolesAndRevokeTokens_whenUpdatingRoles_givenExistingUser() {
+        when(this.userRepository.findByUsername("testUser")).thenReturn(Optional.of(this.mockUser));
+
+        this.userService.updateRoles("testUser", Set.of(Role.ROLE_ADMIN));
+
+        assertEquals(Set.of(Role.ROLE_ADMIN), this.mockUser.getRoles());
+        verify(this.userRepository).save(this.mockUser);
+        verify(this.userDetailsCache).invalidate("testUser");
+        verify(this.tokenRevocations).revokeAll("testUser");
+    }
 
-        verify(this.userRepository).findByUsername("nonExistentUser");
+    private static User user(Role... roles) {
+        User user = new User();
+        user.setId(1L);
+        user.setUsername("testUser");
+        user.setPassword("encodedPassword");
+        user.setRoles(Set.of(roles));
+        return user;
     }
 }